@@ -0,0 +1,143 @@
+package main.controllers;
+
+import main.model.CarChange;
+import main.services.CarChangeFeed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The type Car change controller.
+ * <p>
+ * Serves the changes recorded by every car write, so clients can follow the table
+ * incrementally instead of reading the whole list again. A client keeps the position of the
+ * last change it has seen and asks for the following ones, either by long-polling
+ * {@code /cars/changes} or from the {@code /cars/changes/stream} of Server-Sent Events,
+ * whose event ids are positions so a reconnecting client resumes with {@code Last-Event-ID}.
+ * A change only gives the id, kind and new version of a car: clients read the car itself
+ * if they need it.
+ */
+@RestController
+public class CarChangeController
+{
+    /**
+     * The logger.
+     */
+    public static final Logger LOGGER = LoggerFactory.getLogger(CarChangeController.class);
+
+    /**
+     * Name of the Server-Sent Events carrying a batch of changes.
+     */
+    public static final String CHANGES_EVENT = "changes";
+
+    @Autowired
+    private CarChangeFeed carChangeFeed;
+
+    @Value("${cars.changes.long-poll-timeout:30s}")
+    private Duration longPollTimeout;
+
+    @Value("${cars.changes.stream-timeout:30m}")
+    private Duration streamTimeout;
+
+    /**
+     * Gets the changes following a position, waiting up to {@code cars.changes.long-poll-timeout}
+     * for one when there is none yet.
+     *
+     * @param after the position of the last change seen, 0 for the start of the log
+     * @return the changes in log order, empty when none came before the timeout, or 503 when
+     * the feed is too busy to deliver them
+     */
+    @GetMapping("/cars/changes")
+    public DeferredResult<ResponseEntity<List<CarChange>>> getCarChanges(@RequestParam(defaultValue = "0") long after)
+    {
+        DeferredResult<ResponseEntity<List<CarChange>>> result =
+                new DeferredResult<>(longPollTimeout.toMillis(), ResponseEntity.ok(Collections.emptyList()));
+        if (after < 0){
+            LOGGER.warn("getCarChanges:failed, negative position:{}", after);
+            result.setResult(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null));
+            return result;
+        }
+        CarChangeFeed.Subscription subscription = carChangeFeed.subscribe(after,
+                changes -> result.setResult(ResponseEntity.ok(changes)),
+                () -> result.setResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(null)));
+        result.onCompletion(() -> carChangeFeed.cancel(subscription));
+        return result;
+    }
+
+    /**
+     * Streams the changes following a position as Server-Sent Events named {@link #CHANGES_EVENT},
+     * each holding a batch of changes and identified by the position of its last change.
+     * The next batch is only read once the previous one is written to the client. When the
+     * feed is too busy to deliver a batch the stream ends, and the client resumes it later.
+     *
+     * @param after       the position of the last change seen, 0 for the start of the log
+     * @param lastEventId the id of the last event received before reconnecting, if any
+     * @return the response entity
+     */
+    @GetMapping(value = "/cars/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamCarChanges(@RequestParam(defaultValue = "0") long after,
+                                                       @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId)
+    {
+        long position = lastEventId != null ? lastEventId : after;
+        if (position < 0){
+            LOGGER.warn("streamCarChanges:failed, negative position:{}", position);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        AtomicReference<CarChangeFeed.Subscription> subscription = new AtomicReference<>();
+        AtomicBoolean closed = new AtomicBoolean();
+        emitter.onCompletion(() -> {
+            closed.set(true);
+            carChangeFeed.cancel(subscription.get());
+        });
+        emitter.onTimeout(emitter::complete);
+        stream(emitter, subscription, closed, position);
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Subscribes the emitter to the batch following a position, and again after each batch sent.
+     */
+    private void stream(SseEmitter emitter, AtomicReference<CarChangeFeed.Subscription> subscription,
+                        AtomicBoolean closed, long after)
+    {
+        subscription.set(carChangeFeed.subscribe(after, changes -> {
+            long last = changes.get(changes.size() - 1).getSeq();
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(last))
+                        .name(CHANGES_EVENT)
+                        .data(changes, MediaType.APPLICATION_JSON));
+            }
+            catch (IOException | IllegalStateException e){
+                LOGGER.debug("streamCarChanges:closed, position:{}", after);
+                emitter.completeWithError(e);
+                return;
+            }
+            stream(emitter, subscription, closed, last);
+        }, () -> {
+            LOGGER.warn("streamCarChanges:ended, feed busy, position:{}", after);
+            emitter.complete();
+        }));
+        if (closed.get()){
+            carChangeFeed.cancel(subscription.get());
+        }
+    }
+}
@@ -1,16 +1,44 @@
 package main.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import main.model.Car;
+import main.model.CarChangeLog;
+import main.model.CarKeys;
 import main.model.CarRepository;
+import main.model.CarSearch;
+import main.model.CarStats;
+import main.model.CarUpdate;
+import main.model.CarValidationCode;
+import main.model.CarValidator;
+import main.services.BulkLoadReport;
+import main.services.CarBulkLoader;
+import main.services.CarCache;
+import main.services.CarPlateIndex;
+import main.services.CarSnapshot;
+import main.services.CarStatsCache;
+import main.services.PlateMatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static main.logging.SampledSuccessFilter.SUCCESS;
 
 /**
  * The type Car controller.
@@ -23,9 +51,52 @@ public class CarController
      */
     public static final Logger LOGGER = LoggerFactory.getLogger(CarController.class);
 
+    /**
+     * Maximum number of cars in one page.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Response header holding the cursor of the next page.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private CarRepository carRepository;
 
+    @Autowired
+    private CarBulkLoader carBulkLoader;
+
+    @Autowired
+    private CarCache carCache;
+
+    @Autowired
+    private CarStatsCache carStatsCache;
+
+    @Autowired
+    private CarSnapshot carSnapshot;
+
+    @Autowired
+    private CarChangeLog carChangeLog;
+
+    @Autowired
+    private CarPlateIndex carPlateIndex;
+
+    @Value("${cars.delete.chunk-size:10000}")
+    private int deleteChunkSize;
+
+    private final ObjectReader carReader;
+
+    /**
+     * Instantiates a new Car controller.
+     *
+     * @param objectMapper the object mapper
+     */
+    public CarController(ObjectMapper objectMapper)
+    {
+        this.carReader = objectMapper.readerFor(Car.class);
+    }
+
     /**
      * Add car response entity.
      *
@@ -37,8 +108,9 @@ public class CarController
     {
         if(car.isCorrect()){
             try {
-                carRepository.save(car);
-                LOGGER.info("addCar:success, id:" + car.getId());
+                carChangeLog.insert(List.of(car), () -> carRepository.save(car));
+                carSnapshot.put(List.of(car));
+                LOGGER.info(SUCCESS, "addCar:success, id:{}", car.getId());
                 return new ResponseEntity<>(car.getId(), HttpStatus.CREATED);
             }
             catch (Exception e){
@@ -46,124 +118,257 @@ public class CarController
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
             }
         }
-        LOGGER.warn("addCar:failed, requested:" + car);
+        LOGGER.warn("addCar:failed, requested:{}", car);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
     }
 
+    /**
+     * Add cars in bulk response entity.
+     * <p>
+     * Reads the request body as a stream, either NDJSON with one car per line
+     * or CSV in the {@link CarCsv#HEADER} layout, and reports rejected rows
+     * without aborting the load.
+     *
+     * @param contentType the content type of the body
+     * @param body        the body
+     * @return the response entity
+     */
+    @PostMapping(value = "/cars/bulk", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<BulkLoadReport> addCars(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                  InputStream body)
+    {
+        boolean csv = contentType.isCompatibleWith(CarExportController.TEXT_CSV);
+        Function<String, Car> parser = csv ? CarCsv::parse : this::parseJson;
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            BulkLoadReport report = carBulkLoader.load(reader, parser, csv);
+            LOGGER.info(SUCCESS, "addCars:success, inserted:{} failed:{}", report.getInserted(), report.getFailed());
+            return new ResponseEntity<>(report, HttpStatus.OK);
+        }
+        catch (Exception e){
+            LOGGER.error("addCars:failed, cause:{}", e.getCause());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+
     /**
      * Car list response entity.
+     * <p>
+     * Returns one page of cars ordered by id. When the page is full, the
+     * {@value #NEXT_CURSOR_HEADER} header holds the cursor of the next page.
      *
+     * @param limit       the page size
+     * @param cursor      the cursor of the page, absent for the first page
+     * @param ifNoneMatch the entity tag held by the client
      * @return the response entity
      */
     @GetMapping("/cars/")
-    public ResponseEntity<List<Car>> carList()
+    public ResponseEntity<List<Car>> carList(@RequestParam(defaultValue = "100") int limit,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
     {
-        Iterable<Car> carIterable = carRepository.findAll();
-        ArrayList<Car> carArrayList = new ArrayList<>();
+        CarCursor after;
         try {
-            for(Car car : carIterable){
-                carArrayList.add(car);
-            }
-            if (carArrayList.isEmpty())
+            after = cursor == null ? null : CarCursor.decode(cursor, 1);
+        }
+        catch (IllegalArgumentException e){
+            LOGGER.warn("carList:failed, wrong cursor:{}", cursor);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE){
+            LOGGER.warn("carList:failed, wrong limit:{}", limit);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        try {
+            Pageable page = PageRequest.of(0, limit);
+            List<Car> cars = after == null
+                    ? carRepository.findAllByOrderByIdAsc(page)
+                    : carRepository.findByIdGreaterThanOrderByIdAsc(after.intKey(0), page);
+            if (cars.isEmpty() && after == null)
             {
                 LOGGER.warn("carList:failed, no data");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
             }
+            LOGGER.info(SUCCESS, "carList:success");
+            return page(cars, limit, car -> CarCursor.of(car.getId()), ifNoneMatch);
         }
         catch (Exception e){
-            LOGGER.warn("carList:failed, cause:" + e.getCause());
+            LOGGER.error("carList:failed, cause:{}", e.getCause());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
-        LOGGER.info("carList:success");
-        return new ResponseEntity<>(carArrayList, HttpStatus.OK);
     }
 
     /**
      * Gets car.
      *
-     * @param id the id
-     * @return the car
+     * @param id          the id
+     * @param ifNoneMatch the entity tag held by the client
+     * @return the car, or no body when the client's tag is current
      */
     @GetMapping("/cars/id={id}")
-    public ResponseEntity<Car> getCar(@PathVariable int id)
+    public ResponseEntity<Car> getCar(@PathVariable int id,
+                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
     {
-        Optional<Car> optionalCar = carRepository.findById(id);
+        Optional<Car> optionalCar = carCache.get(id, carRepository::findById);
         if(!optionalCar.isPresent()){
-            LOGGER.warn("getCar:failed, no data, requested id" + id);
+            LOGGER.warn("getCar:failed, no data, requested id{}", id);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
-        LOGGER.info("getCar:success, requested id:" + id);
-        return new ResponseEntity<>(optionalCar.get(), HttpStatus.OK);
+        String eTag = CarETags.of(optionalCar.get());
+        if (CarETags.matches(ifNoneMatch, eTag)){
+            LOGGER.info(SUCCESS, "getCar:success, not modified, requested id:{}", id);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        LOGGER.info(SUCCESS, "getCar:success, requested id:{}", id);
+        return ResponseEntity.status(HttpStatus.OK).eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(optionalCar.get());
+    }
+
+    /**
+     * Finds cars by license number.
+     * <p>
+     * Answered by the {@link CarPlateIndex}: the cars whose license number starts with the
+     * given characters, or with {@code fuzzy} the cars whose license number is at most one
+     * character away from the given one, in license number order. Letters are
+     * case-insensitive and may be typed as the Latin letters they look like.
+     *
+     * @param licenseNumber the start of the license number, or the whole one with {@code fuzzy}
+     * @param region        the region, if filtered
+     * @param fuzzy         whether one wrong, missing or extra character is allowed
+     * @param limit         the maximum number of cars
+     * @return the ids and license numbers of the cars
+     */
+    @GetMapping("/cars/plates")
+    public ResponseEntity<List<PlateMatch>> findCarsByLicenseNumber(@RequestParam(defaultValue = "") String licenseNumber,
+                                                                    @RequestParam(required = false) String region,
+                                                                    @RequestParam(defaultValue = "false") boolean fuzzy,
+                                                                    @RequestParam(defaultValue = "100") int limit)
+    {
+        if (limit < 1 || limit > MAX_PAGE_SIZE){
+            LOGGER.warn("findCarsByLicenseNumber:failed, wrong limit:{}", limit);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        if (!carPlateIndex.isLoaded()){
+            LOGGER.warn("findCarsByLicenseNumber:failed, index not loaded");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(null);
+        }
+        try {
+            List<PlateMatch> cars = fuzzy
+                    ? carPlateIndex.findNear(licenseNumber, region, limit)
+                    : carPlateIndex.findByPrefix(licenseNumber, region, limit);
+            LOGGER.info(SUCCESS, "findCarsByLicenseNumber:success, requested:{} found:{}", licenseNumber, cars.size());
+            return new ResponseEntity<>(cars, HttpStatus.OK);
+        }
+        catch (IllegalArgumentException e){
+            LOGGER.warn("findCarsByLicenseNumber:failed, {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+
+    /**
+     * Gets car cache statistics.
+     *
+     * @return the car cache statistics
+     */
+    @GetMapping("/cars/cache-stats")
+    public ResponseEntity<Map<String, Number>> getCarCacheStats()
+    {
+        CacheStats stats = carCache.stats();
+        Map<String, Number> body = new LinkedHashMap<>();
+        body.put("size", carCache.size());
+        body.put("hitCount", stats.hitCount());
+        body.put("missCount", stats.missCount());
+        body.put("hitRate", stats.hitRate());
+        body.put("evictionCount", stats.evictionCount());
+        return new ResponseEntity<>(body, HttpStatus.OK);
     }
 
     /**
      * Remove car response entity.
      *
-     * @param id the id
+     * @param id      the id
+     * @param ifMatch the entity tag the car must have, if any
      * @return the response entity
      */
     @DeleteMapping("/cars/id={id}")
-    public ResponseEntity<Integer> removeCar(@PathVariable int id)
+    public ResponseEntity<Integer> removeCar(@PathVariable int id,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
     {
-        Optional<Car> optionalCar = carRepository.findById(id);
-        if(!optionalCar.isPresent()){
-            LOGGER.warn("removeCar:failed, no data, requested id:" + id);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
-        }
         try {
-            carRepository.deleteById(id);
-            LOGGER.info("removeCar:success, requested id:" + id);
+            long expectedVersion = CarETags.expectedVersion(ifMatch);
+            if (carChangeLog.delete(id, () -> carRepository.deleteCarById(id, expectedVersion)) == 0){
+                return notUpdated("removeCar", id, expectedVersion);
+            }
+            carCache.invalidate(id);
+            carSnapshot.remove(id);
+            LOGGER.info(SUCCESS, "removeCar:success, requested id:{}", id);
             return new ResponseEntity<>(id, HttpStatus.OK);
         }
         catch (Exception e){
-            LOGGER.error("removeCar:failed, cause: " + e.getCause());
+            LOGGER.error("removeCar:failed, cause: {}", e.getCause());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
     }
 
     /**
      * Remove all cars response entity.
+     * <p>
+     * Deletes every car matching the optional filters, in chunks of
+     * {@code cars.delete.chunk-size} rows, each chunk in its own transaction. The car
+     * snapshot drops the cars of each chunk once it is committed, so when a chunk fails it
+     * still holds exactly the cars left; the cache is emptied either way.
      *
-     * @return the response entity
+     * @param brand          the brand, if filtered
+     * @param colour         the colour, if filtered
+     * @param productionYear the production year, if filtered
+     * @return the number of removed cars
      */
     @DeleteMapping("/cars/")
-    public ResponseEntity<Long> removeAllCars()
+    public ResponseEntity<Long> removeAllCars(@RequestParam(required = false) String brand,
+                                              @RequestParam(required = false) String colour,
+                                              @RequestParam(required = false) Integer productionYear)
     {
-        long totalCarsAmount = carRepository.count();
         try {
-            carRepository.deleteAll();
-            LOGGER.info("removeAllCars:success");
-            return new ResponseEntity<>(totalCarsAmount, HttpStatus.OK);
+            long removedCarsAmount = carRepository.deleteAllMatching(brand, colour, productionYear, deleteChunkSize,
+                    carSnapshot::removeAll);
+            LOGGER.info(SUCCESS, "removeAllCars:success, removed:{}", removedCarsAmount);
+            return new ResponseEntity<>(removedCarsAmount, HttpStatus.OK);
         }
         catch (Exception e){
-            LOGGER.error("removeAllCars:failed, cause:" + e.getCause());
+            LOGGER.error("removeAllCars:failed, cause:{}", e.getCause());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
+        finally {
+            carCache.invalidateAll();
+        }
     }
 
     /**
      * Sets car colour.
      *
-     * @param id     the id
-     * @param colour the colour
+     * @param id      the id
+     * @param colour  the colour
+     * @param ifMatch the entity tag the car must have, if any
      * @return the car colour
      */
     @PutMapping("/cars/id={id}-set-colour={colour}")
-    public ResponseEntity<Integer> setCarColour(@PathVariable int id, @PathVariable String colour)
+    public ResponseEntity<Integer> setCarColour(@PathVariable int id,
+                                                @PathVariable String colour,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
     {
-        Optional<Car> optionalCar = carRepository.findById(id);
+        if (colour.isEmpty()){
+            LOGGER.warn("setCarColour:failed, empty colour, requested id:{}", id);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
         try {
-            if(!optionalCar.isPresent()){
-                LOGGER.warn("setCarColour:failed, no data, requested id:" + id);
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+            long expectedVersion = CarETags.expectedVersion(ifMatch);
+            if (carChangeLog.update(id, () -> carRepository.updateColour(id, colour, CarKeys.colour(colour), expectedVersion)) == 0){
+                return notUpdated("setCarColour", id, expectedVersion);
             }
-            Car updatedCar = optionalCar.get();
-            updatedCar.setColour(colour);
-            carRepository.save(updatedCar);
-            LOGGER.info("setCarColour:success, requested id:" + id + " new value:" + colour);
-            return new ResponseEntity<>(optionalCar.get().getId(), HttpStatus.OK);
+            LOGGER.info(SUCCESS, "setCarColour:success, requested id:{} new value:{}", id, colour);
+            return updated(id, expectedVersion);
         }
         catch (Exception e){
-            LOGGER.error("setCarColour:failed, cause:" + e.getCause());
+            LOGGER.error("setCarColour:failed, cause:{}", e.getCause());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
     }
@@ -173,31 +378,76 @@ public class CarController
      *
      * @param id            the id
      * @param licenseNumber the license number
+     * @param ifMatch       the entity tag the car must have, if any
      * @return the car license number
      */
     @PutMapping("/cars/id={id}-set-license-number={licenseNumber}")
-    public ResponseEntity<Integer> setCarLicenseNumber(@PathVariable int id, @PathVariable String licenseNumber)
+    public ResponseEntity<Integer> setCarLicenseNumber(@PathVariable int id,
+                                                       @PathVariable String licenseNumber,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
     {
-        Optional<Car> optionalCar = carRepository.findById(id);
+        CarValidationCode code = CarValidator.validateLicenseNumber(licenseNumber);
+        if (code != CarValidationCode.VALID){
+            LOGGER.warn("setCarLicenseNumber:failed, {}, requested id:{}", code, id);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
         try {
-            if(!optionalCar.isPresent()){
-                LOGGER.warn("setCarLicenseNumber:failed, no data, requested id:" + id);
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+            long expectedVersion = CarETags.expectedVersion(ifMatch);
+            if (carChangeLog.update(id, () -> carRepository.updateLicenseNumber(id, licenseNumber, expectedVersion)) == 0){
+                return notUpdated("setCarLicenseNumber", id, expectedVersion);
             }
-            Car updatedCar = optionalCar.get();
-            updatedCar.setLicenseNumber(licenseNumber);
-            carRepository.save(updatedCar);
-            LOGGER.info("setCarLicenseNumber:success, requested id:" + id + " new value:" + licenseNumber);
-            return new ResponseEntity<>(optionalCar.get().getId(), HttpStatus.OK);
+            LOGGER.info(SUCCESS, "setCarLicenseNumber:success, requested id:{} new value:{}", id, licenseNumber);
+            return updated(id, expectedVersion);
         }
         catch (Exception e){
-            LOGGER.error("setCarLicenseNumber:failed, cause:" + e.getCause());
+            LOGGER.error("setCarLicenseNumber:failed, cause:{}", e.getCause());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+
+    /**
+     * Update car response entity.
+     * <p>
+     * Writes every field set in the body with a single UPDATE statement.
+     *
+     * @param id      the id
+     * @param update  the fields to set
+     * @param ifMatch the entity tag the car must have, if any
+     * @return the response entity
+     */
+    @PatchMapping("/cars/id={id}")
+    public ResponseEntity<Integer> updateCar(@PathVariable int id,
+                                             @RequestBody CarUpdate update,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+    {
+        if (update.isEmpty()){
+            LOGGER.warn("updateCar:failed, no fields, requested id:{}", id);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        CarValidationCode code = CarValidator.validate(update);
+        if (code != CarValidationCode.VALID){
+            LOGGER.warn("updateCar:failed, {}, requested id:{}", code, id);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        try {
+            long expectedVersion = CarETags.expectedVersion(ifMatch);
+            if (carChangeLog.update(id, () -> carRepository.update(id, update, expectedVersion)) == 0){
+                return notUpdated("updateCar", id, expectedVersion);
+            }
+            LOGGER.info(SUCCESS, "updateCar:success, requested id:{}", id);
+            return updated(id, expectedVersion);
+        }
+        catch (Exception e){
+            LOGGER.error("updateCar:failed, cause:{}", e.getCause());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
     }
 
     /**
      * Gets cars by colour.
+     * <p>
+     * Colours are matched by their {@link CarKeys}: case, surrounding whitespace and
+     * known alternative spellings are ignored. Answered by the {@link CarSnapshot} once loaded.
      *
      * @param colour the colour
      * @return the cars by colour
@@ -205,29 +455,28 @@ public class CarController
     @GetMapping("/cars/colour={colour}")
     public ResponseEntity<List<Car>> getCarsByColour(@PathVariable String colour)
     {
-        Iterable<Car> cars = carRepository.findAll();
-        List<Car> carsWithSelectedColour = new ArrayList<>();
         try {
-            for (Car car : cars){
-                if (car.getColour().equals(colour)){
-                    carsWithSelectedColour.add(car);
-                }
-            }
+            List<Car> carsWithSelectedColour = carSnapshot.isLoaded()
+                    ? carSnapshot.findByColour(colour)
+                    : carRepository.findByColour(colour);
             if (carsWithSelectedColour.isEmpty()){
-                LOGGER.warn("getCarsByColour:failed, no data, requested colour:" + colour);
+                LOGGER.warn("getCarsByColour:failed, no data, requested colour:{}", colour);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
             }
-            LOGGER.info("getCarsByColour:success, requested colour:" + colour);
+            LOGGER.info(SUCCESS, "getCarsByColour:success, requested colour:{}", colour);
             return new ResponseEntity<>(carsWithSelectedColour, HttpStatus.OK);
         }
         catch (Exception e){
-            LOGGER.error("getCarsByColour:failed, cause:" + e.getCause());
+            LOGGER.error("getCarsByColour:failed, cause:{}", e.getCause());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
     }
 
     /**
      * Gets cars by brand.
+     * <p>
+     * Brands are matched by their {@link CarKeys}: case, surrounding whitespace and
+     * known alternative spellings are ignored. Answered by the {@link CarSnapshot} once loaded.
      *
      * @param brand the brand
      * @return the cars by brand
@@ -235,141 +484,315 @@ public class CarController
     @GetMapping("/cars/brand={brand}")
     public ResponseEntity<List<Car>> getCarsByBrand(@PathVariable String brand)
     {
-        Iterable<Car> cars = carRepository.findAll();
-        List<Car> carsWithSelectedBrand = new ArrayList<>();
         try {
-            for (Car car : cars){
-                if (car.getBrand().equals(brand)){
-                    carsWithSelectedBrand.add(car);
-                }
-            }
+            List<Car> carsWithSelectedBrand = carSnapshot.isLoaded()
+                    ? carSnapshot.findByBrand(brand)
+                    : carRepository.findByBrand(brand);
             if (carsWithSelectedBrand.isEmpty()){
-                LOGGER.warn("getCarsByBrand:failed, no data, requested brand:" + brand);
+                LOGGER.warn("getCarsByBrand:failed, no data, requested brand:{}", brand);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
             }
-            LOGGER.info("getCarsByBrand:success, requested brand:" + brand);
+            LOGGER.info(SUCCESS, "getCarsByBrand:success, requested brand:{}", brand);
             return new ResponseEntity<>(carsWithSelectedBrand, HttpStatus.OK);
         }
         catch (Exception e){
-            LOGGER.error("getCarsByBrand:failed, cause:" + e.getCause());
+            LOGGER.error("getCarsByBrand:failed, cause:{}", e.getCause());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
     }
 
     /**
      * Gets first created car.
+     * <p>
+     * Answered by the {@link CarSnapshot} once loaded.
      *
      * @return the first created car
      */
     @GetMapping("/cars/first")
     public ResponseEntity<Car> getFirstCreatedCar()
     {
-        Iterable<Car> cars = carRepository.findAll();
-        List<Car> carList = new ArrayList<>();
         try{
-            for (Car car : cars){
-                carList.add(car);
-            }
-            Optional<Car> firstCreatedCar = carList
-                    .stream()
-                    .min(Comparator.comparing(Car::getCreationDate));
+            Optional<Car> firstCreatedCar = carSnapshot.isLoaded()
+                    ? carSnapshot.findFirstCreated()
+                    : carRepository.findFirstByOrderByCreationDateAsc();
             if (!firstCreatedCar.isPresent()){
                 LOGGER.warn("getFirstCreatedCar:failed, no data");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
             }
-            LOGGER.info("getFirstCreatedCar:success");
+            LOGGER.info(SUCCESS, "getFirstCreatedCar:success");
             return new ResponseEntity<>(firstCreatedCar.get(), HttpStatus.OK);
         }
         catch (Exception e){
-            LOGGER.error("getFirstCreatedCar:failed, cause:" + e.getCause());
+            LOGGER.error("getFirstCreatedCar:failed, cause:{}", e.getCause());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
     }
 
     /**
      * Gets last created car.
+     * <p>
+     * Answered by the {@link CarSnapshot} once loaded.
      *
      * @return the last created car
      */
     @GetMapping("/cars/last")
     public ResponseEntity<Car> getLastCreatedCar()
     {
-        Iterable<Car> cars = carRepository.findAll();
-        List<Car> carList = new ArrayList<>();
         try{
-            for (Car car : cars){
-                carList.add(car);
-            }
-            Optional<Car> lastCreatedCar = carList
-                    .stream()
-                    .max(Comparator.comparing(Car::getCreationDate));
+            Optional<Car> lastCreatedCar = carSnapshot.isLoaded()
+                    ? carSnapshot.findLastCreated()
+                    : carRepository.findFirstByOrderByCreationDateDesc();
             if (!lastCreatedCar.isPresent()){
                 LOGGER.warn("getLastCreatedCar:failed, no data");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
             }
-            LOGGER.info("getLastCreatedCar:success");
+            LOGGER.info(SUCCESS, "getLastCreatedCar:success");
             return new ResponseEntity<>(lastCreatedCar.get(), HttpStatus.OK);
         }
         catch (Exception e){
-            LOGGER.error("getLastCreatedCar:failed, cause:" + e.getCause());
+            LOGGER.error("getLastCreatedCar:failed, cause:{}", e.getCause());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
     }
 
     /**
      * Gets cars sorted by year.
+     * <p>
+     * Returns one page of cars ordered by production year, then id. When the page is full,
+     * the {@value #NEXT_CURSOR_HEADER} header holds the cursor of the next page. Answered by
+     * the {@link CarSnapshot} once loaded.
      *
+     * @param limit       the page size
+     * @param cursor      the cursor of the page, absent for the first page
+     * @param ifNoneMatch the entity tag held by the client
      * @return the cars sorted by year
      */
     @GetMapping("/cars/sorted-by-year")
-    public ResponseEntity<List<Car>> getCarsSortedByYear()
+    public ResponseEntity<List<Car>> getCarsSortedByYear(@RequestParam(defaultValue = "100") int limit,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
     {
-        Iterable<Car> cars = carRepository.findAll();
-        List<Car> carList = new ArrayList<>();
+        CarCursor after;
         try {
-            for (Car car : cars){
-                carList.add(car);
+            after = cursor == null ? null : CarCursor.decode(cursor, 2);
+        }
+        catch (IllegalArgumentException e){
+            LOGGER.warn("getCarsSortedByYear:failed, wrong cursor:{}", cursor);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE){
+            LOGGER.warn("getCarsSortedByYear:failed, wrong limit:{}", limit);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        try {
+            List<Car> carsSortedByYear;
+            if (carSnapshot.isLoaded()){
+                carsSortedByYear = after == null
+                        ? carSnapshot.findSortedByYear(limit)
+                        : carSnapshot.findSortedByYearAfter(after.intKey(0), after.intKey(1), limit);
             }
-            List<Car> carsSortedByYear = carList
-                    .stream()
-                    .sorted(Comparator.comparingInt(Car::getProductionYear))
-                    .collect(Collectors.toList());
-            if(carsSortedByYear.isEmpty()){
+            else {
+                Pageable page = PageRequest.of(0, limit);
+                carsSortedByYear = after == null
+                        ? carRepository.findAllByOrderByProductionYearAscIdAsc(page)
+                        : carRepository.findSortedByYearAfter(after.intKey(0), after.intKey(1), page);
+            }
+            if(carsSortedByYear.isEmpty() && after == null){
                 LOGGER.warn("getCarsSortedByYear:failed, no data");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
             }
-            LOGGER.info("getCarsSortedByYear:success");
-            return new ResponseEntity<>(carsSortedByYear, HttpStatus.OK);
+            LOGGER.info(SUCCESS, "getCarsSortedByYear:success");
+            return page(carsSortedByYear, limit, car -> CarCursor.of(car.getProductionYear(), car.getId()), ifNoneMatch);
         }
         catch (Exception e){
-            LOGGER.error("getCarsSortedByYear:failed, cause:" + e.getCause());
+            LOGGER.error("getCarsSortedByYear:failed, cause:{}", e.getCause());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+
+    /**
+     * Search cars response entity.
+     * <p>
+     * Returns one page of the cars matching every given criterion of the search, in the
+     * search order. When the page is full, the {@value #NEXT_CURSOR_HEADER} header holds
+     * the cursor of the next page.
+     *
+     * @param search      the search criteria and order
+     * @param limit       the page size
+     * @param cursor      the cursor of the page, absent for the first page
+     * @param ifNoneMatch the entity tag held by the client
+     * @return the response entity
+     */
+    @GetMapping("/cars/search")
+    public ResponseEntity<List<Car>> searchCars(CarSearch search,
+                                                @RequestParam(defaultValue = "100") int limit,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+    {
+        CarSearch.Sort sort;
+        CarCursor after;
+        try {
+            search.validate();
+            sort = search.sort();
+            after = cursor == null ? null : CarCursor.decode(cursor, sort);
+        }
+        catch (IllegalArgumentException e){
+            LOGGER.warn("searchCars:failed, {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE){
+            LOGGER.warn("searchCars:failed, wrong limit:{}", limit);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        try {
+            List<Car> cars = carRepository.search(search, after == null ? null : after.keys(), limit);
+            if (cars.isEmpty() && after == null){
+                LOGGER.warn("searchCars:failed, no data");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+            }
+            LOGGER.info(SUCCESS, "searchCars:success, found:{}", cars.size());
+            return page(cars, limit, car -> CarCursor.of(sort.keysOf(car)), ifNoneMatch);
+        }
+        catch (Exception e){
+            LOGGER.error("searchCars:failed, cause:{}", e.getCause());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
     }
 
     /**
      * Get cars count response entity.
+     * <p>
+     * Answered by the {@link CarSnapshot} once loaded.
      *
      * @return the response entity
      */
     @GetMapping("/cars/count")
-    public ResponseEntity<Integer> getCarsCount(){
-        Iterable<Car> carIterable = carRepository.findAll();
-        ArrayList<Car> carArrayList = new ArrayList<>();
+    public ResponseEntity<Long> getCarsCount(){
         try {
-            for(Car car : carIterable){
-                carArrayList.add(car);
-            }
-            if (carArrayList.isEmpty())
+            long carsCount = carSnapshot.isLoaded() ? carSnapshot.count() : carRepository.count();
+            if (carsCount == 0)
             {
-                LOGGER.warn("carList:success, no data");
-                return new ResponseEntity<>(0, HttpStatus.OK);
+                LOGGER.warn("getCarsCount:success, no data");
+                return new ResponseEntity<>(0L, HttpStatus.OK);
             }
+            LOGGER.info(SUCCESS, "getCarsCount:success");
+            return new ResponseEntity<>(carsCount, HttpStatus.OK);
+        }
+        catch (Exception e){
+            LOGGER.error("getCarsCount:failed, cause:{}", e.getCause());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+
+    /**
+     * Gets cars stats.
+     * <p>
+     * Counts the cars matching the optional filters by brand, colour, body type and
+     * production year bucket in one database round-trip. Answers are cached, and may be
+     * cached by clients, for {@code cars.stats.ttl}.
+     *
+     * @param brand          the brand, if filtered
+     * @param colour         the colour, if filtered
+     * @param productionYear the production year, if filtered
+     * @param yearBucket     the width of the production year buckets
+     * @return the cars stats
+     */
+    @GetMapping("/cars/stats")
+    public ResponseEntity<CarStats> getCarsStats(@RequestParam(required = false) String brand,
+                                                 @RequestParam(required = false) String colour,
+                                                 @RequestParam(required = false) Integer productionYear,
+                                                 @RequestParam(defaultValue = "10") int yearBucket)
+    {
+        if (yearBucket < 1){
+            LOGGER.warn("getCarsStats:failed, wrong year bucket:{}", yearBucket);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        try {
+            CarStats stats = carStatsCache.get(brand, colour, productionYear, yearBucket,
+                    () -> carRepository.countFacets(brand, colour, productionYear, yearBucket));
+            LOGGER.info(SUCCESS, "getCarsStats:success, total:{}", stats.getTotal());
+            return ResponseEntity.status(HttpStatus.OK)
+                    .cacheControl(CacheControl.maxAge(carStatsCache.getTtl().getSeconds(), TimeUnit.SECONDS))
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(stats);
         }
         catch (Exception e){
-            LOGGER.warn("carList:failed, cause:" + e.getCause());
+            LOGGER.error("getCarsStats:failed, cause:{}", e.getCause());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+
+    /**
+     * Wraps a page of cars into a response, adding the page entity tag and, when the page
+     * is full, the next page cursor. Answers without body when the client's tag is current.
+     *
+     * @param cars        the page of cars
+     * @param limit       the page size
+     * @param cursorOf    the cursor pointing after the given car
+     * @param ifNoneMatch the entity tag held by the client
+     * @return the response entity
+     */
+    private static ResponseEntity<List<Car>> page(List<Car> cars,
+                                                  int limit,
+                                                  Function<Car, CarCursor> cursorOf,
+                                                  String ifNoneMatch)
+    {
+        String eTag = CarETags.of(cars);
+        boolean notModified = CarETags.matches(ifNoneMatch, eTag);
+        ResponseEntity.BodyBuilder response = ResponseEntity
+                .status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT);
+        if (cars.size() == limit){
+            response.header(NEXT_CURSOR_HEADER, cursorOf.apply(cars.get(cars.size() - 1)).encode());
+        }
+        return notModified ? response.build() : response.body(cars);
+    }
+
+    /**
+     * Answers a successful update, with the new entity tag when the expected version was known.
+     *
+     * @param id              the id
+     * @param expectedVersion the version the car had, or {@link CarRepository#ANY_VERSION}
+     * @return the response entity
+     */
+    private ResponseEntity<Integer> updated(int id, long expectedVersion)
+    {
+        carCache.invalidate(id);
+        carSnapshot.refresh(id);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK);
+        if (expectedVersion != CarRepository.ANY_VERSION){
+            response.eTag("\"" + (expectedVersion + 1) + "\"");
+        }
+        return response.body(id);
+    }
+
+    /**
+     * Answers an update or delete that changed no row: 412 when the car exists with another
+     * version than the expected one, 404 otherwise.
+     *
+     * @param operation       the operation name, for the log
+     * @param id              the id
+     * @param expectedVersion the expected version, or {@link CarRepository#ANY_VERSION}
+     * @return the response entity
+     */
+    private ResponseEntity<Integer> notUpdated(String operation, int id, long expectedVersion)
+    {
+        if (expectedVersion != CarRepository.ANY_VERSION && carRepository.existsById(id)){
+            LOGGER.warn("{}:failed, version conflict, requested id:{}", operation, id);
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(null);
+        }
+        LOGGER.warn("{}:failed, no data, requested id:{}", operation, id);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+    }
+
+    private Car parseJson(String line)
+    {
+        try {
+            return carReader.readValue(line);
+        }
+        catch (IOException e){
+            throw new UncheckedIOException(e);
         }
-        LOGGER.info("carList:success");
-        return new ResponseEntity<>(carArrayList.size(), HttpStatus.OK);
     }
 }
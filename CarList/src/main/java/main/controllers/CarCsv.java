@@ -0,0 +1,151 @@
+package main.controllers;
+
+import main.model.BodyType;
+import main.model.Car;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV representation of {@link Car} rows, one car per line.
+ * <p>
+ * Line breaks inside a field are written as a space, so every record stays on one line
+ * and can be read back line by line: a reader that joined lines inside quotes would let
+ * one unterminated quote swallow the rest of the input.
+ */
+public final class CarCsv
+{
+    /**
+     * The header line.
+     */
+    public static final String HEADER = "id,licenseNumber,brand,model,colour,productionYear,bodyType,creationDate";
+
+    private static final int COLUMNS = 8;
+
+    private CarCsv() {}
+
+    /**
+     * Parses one CSV line in the {@link #HEADER} layout. The id column is ignored,
+     * an empty body type or creation date keeps the default value.
+     *
+     * @param line the line, without the line break
+     * @return the car
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    public static Car parse(String line)
+    {
+        List<String> fields = split(line);
+        if (fields.size() != COLUMNS) {
+            throw new IllegalArgumentException("expected " + COLUMNS + " columns, found " + fields.size());
+        }
+        Car car = new Car(fields.get(1),
+                fields.get(2),
+                fields.get(3),
+                fields.get(4),
+                Integer.parseInt(fields.get(5)),
+                fields.get(6).isEmpty() ? null : BodyType.valueOf(fields.get(6)));
+        if (!fields.get(7).isEmpty()) {
+            car.setCreationDate(Timestamp.valueOf(fields.get(7)));
+        }
+        return car;
+    }
+
+    /**
+     * Writes the car as one CSV line, including the line break.
+     *
+     * @param car the car
+     * @param out the output
+     * @throws IOException if the output fails
+     */
+    public static void write(Car car, Appendable out) throws IOException
+    {
+        out.append(Integer.toString(car.getId())).append(',');
+        writeField(car.getLicenseNumber(), out);
+        out.append(',');
+        writeField(car.getBrand(), out);
+        out.append(',');
+        writeField(car.getModel(), out);
+        out.append(',');
+        writeField(car.getColour(), out);
+        out.append(',').append(Integer.toString(car.getProductionYear())).append(',');
+        if (car.getBodyType() != null) {
+            out.append(car.getBodyType().name());
+        }
+        out.append(',');
+        if (car.getCreationDate() != null) {
+            out.append(car.getCreationDate().toString());
+        }
+        out.append('\n');
+    }
+
+    /**
+     * Writes a field, each line break as a space, quoting it when it holds a separator or a quote.
+     */
+    private static void writeField(String value, Appendable out) throws IOException
+    {
+        if (value == null) {
+            return;
+        }
+        value = value.replace("\r\n", " ").replace('\r', ' ').replace('\n', ' ');
+        boolean quoted = false;
+        for (int i = 0; i < value.length() && !quoted; i++) {
+            char c = value.charAt(i);
+            quoted = c == ',' || c == '"';
+        }
+        if (!quoted) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    /**
+     * Splits a line into fields, unquoting quoted ones.
+     */
+    private static List<String> split(String line)
+    {
+        List<String> fields = new ArrayList<>(COLUMNS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                }
+                else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                }
+                else {
+                    quoted = false;
+                }
+            }
+            else if (c == '"') {
+                quoted = true;
+            }
+            else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            }
+            else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,134 @@
+package main.controllers;
+
+import main.model.CarSearch;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor, pointing just after the last row of a page.
+ * <p>
+ * Holds the sort keys of that row, e.g. {@code (id)} or {@code (productionYear, id)},
+ * encoded as url-safe Base64 so clients treat it as a token. Keys are checked to fit the
+ * columns they are compared with when decoded, so a forged cursor is rejected rather than
+ * wrapped around to another position.
+ */
+public final class CarCursor
+{
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final long[] keys;
+
+    private CarCursor(long[] keys)
+    {
+        this.keys = keys;
+    }
+
+    /**
+     * Instantiates a new cursor.
+     *
+     * @param keys the sort keys of the last returned row
+     * @return the cursor
+     */
+    public static CarCursor of(long... keys)
+    {
+        return new CarCursor(keys.clone());
+    }
+
+    /**
+     * Decodes a cursor issued by {@link #encode()} whose keys are all ints.
+     *
+     * @param cursor   the encoded cursor
+     * @param keyCount the expected number of keys
+     * @return the cursor
+     * @throws IllegalArgumentException if the cursor is malformed or a key does not fit an int
+     */
+    public static CarCursor decode(String cursor, int keyCount)
+    {
+        return decode(cursor, keyCount, 0);
+    }
+
+    /**
+     * Decodes a cursor issued by {@link #encode()} for a position in a search order: the
+     * creation date key may take any long, the others must fit an int.
+     *
+     * @param cursor the encoded cursor
+     * @param sort   the order of the search
+     * @return the cursor
+     * @throws IllegalArgumentException if the cursor is malformed or a key does not fit its column
+     */
+    public static CarCursor decode(String cursor, CarSearch.Sort sort)
+    {
+        return decode(cursor, sort.keyCount(), sort == CarSearch.Sort.CREATION_DATE ? 1 : 0);
+    }
+
+    /**
+     * Decodes a cursor whose first {@code longKeys} keys may take any long.
+     */
+    private static CarCursor decode(String cursor, int keyCount, int longKeys)
+    {
+        String[] parts = new String(DECODER.decode(cursor), StandardCharsets.US_ASCII).split(":", -1);
+        if (parts.length != keyCount) {
+            throw new IllegalArgumentException("cursor must hold " + keyCount + " keys: " + cursor);
+        }
+        long[] keys = new long[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = Long.parseLong(parts[i]);
+            if (i >= longKeys && keys[i] != (int) keys[i]) {
+                throw new IllegalArgumentException("cursor key out of range: " + cursor);
+            }
+        }
+        return new CarCursor(keys);
+    }
+
+    /**
+     * Encodes the cursor.
+     *
+     * @return the encoded cursor
+     */
+    public String encode()
+    {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                builder.append(':');
+            }
+            builder.append(keys[i]);
+        }
+        return ENCODER.encodeToString(builder.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Gets the sort key at the given position.
+     *
+     * @param index the key position
+     * @return the key
+     */
+    public long key(int index)
+    {
+        return keys[index];
+    }
+
+    /**
+     * Gets the sort key at the given position, which was checked to fit an int when decoded.
+     *
+     * @param index the key position
+     * @return the key
+     */
+    public int intKey(int index)
+    {
+        return Math.toIntExact(keys[index]);
+    }
+
+    /**
+     * Gets every sort key.
+     *
+     * @return the keys
+     */
+    public long[] keys()
+    {
+        return keys.clone();
+    }
+}
@@ -0,0 +1,99 @@
+package main.controllers;
+
+import main.model.Car;
+import main.model.CarRepository;
+
+import java.util.List;
+
+/**
+ * HTTP entity tags of cars and pages of cars.
+ * <p>
+ * A car is tagged with its row version. A page is tagged with a hash of the ids and
+ * versions of its rows, so it changes whenever a row of the page is updated,
+ * inserted or removed, and is computed without serialising the page.
+ */
+public final class CarETags
+{
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private CarETags() {}
+
+    /**
+     * Gets the strong entity tag of the car.
+     *
+     * @param car the car
+     * @return the entity tag
+     */
+    public static String of(Car car)
+    {
+        return "\"" + car.getVersion() + "\"";
+    }
+
+    /**
+     * Gets the weak entity tag of the page.
+     *
+     * @param cars the page of cars
+     * @return the entity tag
+     */
+    public static String of(List<Car> cars)
+    {
+        long hash = FNV_OFFSET;
+        for (Car car : cars) {
+            hash = (hash ^ car.getId()) * FNV_PRIME;
+            hash = (hash ^ car.getVersion()) * FNV_PRIME;
+        }
+        return "W/\"" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Parses an If-Match header into the expected car version.
+     *
+     * @param ifMatch the header value, may be null
+     * @return the version, or {@link CarRepository#ANY_VERSION} when absent or {@code *}
+     * @throws IllegalArgumentException if the header is not a single car entity tag
+     */
+    public static long expectedVersion(String ifMatch)
+    {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return CarRepository.ANY_VERSION;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new IllegalArgumentException("not a car entity tag: " + ifMatch);
+        }
+        long version = Long.parseLong(tag.substring(1, tag.length() - 1));
+        if (version < 0) {
+            throw new IllegalArgumentException("not a car entity tag: " + ifMatch);
+        }
+        return version;
+    }
+
+    /**
+     * Whether an If-None-Match header matches the entity tag, using weak comparison.
+     *
+     * @param ifNoneMatch the header value, may be null
+     * @param eTag        the current entity tag
+     * @return the boolean
+     */
+    public static boolean matches(String ifNoneMatch, String eTag)
+    {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaqueTag = opaque(eTag);
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*") || opaque(tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String tag)
+    {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
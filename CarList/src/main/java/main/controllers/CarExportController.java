@@ -0,0 +1,168 @@
+package main.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import main.model.Car;
+import main.model.CarRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static main.logging.SampledSuccessFilter.SUCCESS;
+
+/**
+ * The type Car export controller.
+ * <p>
+ * Streams the whole cars table row by row from a database cursor, so heap use
+ * does not depend on the table size.
+ */
+@RestController
+public class CarExportController
+{
+    /**
+     * The logger.
+     */
+    public static final Logger LOGGER = LoggerFactory.getLogger(CarExportController.class);
+
+    /**
+     * The NDJSON media type.
+     */
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    /**
+     * The CSV media type.
+     */
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    /**
+     * Number of rows written between two flushes of the response.
+     */
+    private static final int FLUSH_EVERY = 1000;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectWriter carWriter;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Instantiates a new Car export controller.
+     *
+     * @param objectMapper       the object mapper
+     * @param transactionManager the transaction manager
+     */
+    public CarExportController(ObjectMapper objectMapper, PlatformTransactionManager transactionManager)
+    {
+        this.objectMapper = objectMapper;
+        this.carWriter = objectMapper.writerFor(Car.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Export cars response entity.
+     *
+     * @param format the format, {@code ndjson} or {@code csv}
+     * @return the response entity
+     */
+    @GetMapping("/cars/export")
+    public ResponseEntity<StreamingResponseBody> exportCars(@RequestParam(defaultValue = "ndjson") String format)
+    {
+        switch (format){
+            case "ndjson":
+                return ResponseEntity.ok()
+                        .contentType(APPLICATION_NDJSON)
+                        .body(out -> export(format, out));
+            case "csv":
+                return ResponseEntity.ok()
+                        .contentType(TEXT_CSV)
+                        .body(out -> export(format, out));
+            default:
+                LOGGER.warn("exportCars:failed, wrong format:{}", format);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+
+    /**
+     * Writes every car to the output inside one read-only transaction,
+     * detaching each row once written.
+     */
+    private void export(String format, OutputStream out)
+    {
+        long exported = transactionTemplate.execute(status -> {
+            try (Stream<Car> cars = carRepository.streamAllByOrderByIdAsc()){
+                return format.equals("ndjson") ? writeNdjson(cars.iterator(), out) : writeCsv(cars.iterator(), out);
+            }
+            catch (IOException e){
+                throw new UncheckedIOException(e);
+            }
+        });
+        LOGGER.info(SUCCESS, "exportCars:success, format:{} rows:{}", format, exported);
+    }
+
+    private long writeNdjson(Iterator<Car> cars, OutputStream out) throws IOException
+    {
+        long rows = 0;
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        while (cars.hasNext()){
+            Car car = cars.next();
+            carWriter.writeValue(generator, car);
+            generator.writeRaw('\n');
+            entityManager.detach(car);
+            if (++rows % FLUSH_EVERY == 0){
+                generator.flush();
+            }
+        }
+        generator.close();
+        return rows;
+    }
+
+    private long writeCsv(Iterator<Car> cars, OutputStream out) throws IOException
+    {
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CarCsv.HEADER);
+        writer.write('\n');
+        while (cars.hasNext()){
+            Car car = cars.next();
+            CarCsv.write(car, writer);
+            entityManager.detach(car);
+            if (++rows % FLUSH_EVERY == 0){
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+}
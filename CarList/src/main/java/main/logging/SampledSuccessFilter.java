@@ -0,0 +1,59 @@
+package main.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps one in {@code rate} of the log events marked {@link #SUCCESS}, chosen at random.
+ * <p>
+ * Runs before the event is built, so a dropped success line costs neither formatting nor
+ * a slot in the appender queue. A rate of 1 keeps every success line, a rate of 0 or less
+ * drops them all. Unmarked events are never dropped.
+ */
+public class SampledSuccessFilter extends TurboFilter
+{
+    /**
+     * The marker of the routine success lines that may be sampled.
+     */
+    public static final Marker SUCCESS = MarkerFactory.getMarker("SUCCESS");
+
+    private int rate = 1;
+
+    /**
+     * Gets rate.
+     *
+     * @return the rate
+     */
+    public int getRate()
+    {
+        return rate;
+    }
+
+    /**
+     * Sets rate.
+     *
+     * @param rate the rate
+     */
+    public void setRate(int rate)
+    {
+        this.rate = rate;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t)
+    {
+        if (rate == 1 || marker == null || !marker.equals(SUCCESS)){
+            return FilterReply.NEUTRAL;
+        }
+        if (rate > 1 && ThreadLocalRandom.current().nextInt(rate) == 0){
+            return FilterReply.NEUTRAL;
+        }
+        return FilterReply.DENY;
+    }
+}
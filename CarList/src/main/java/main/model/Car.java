@@ -1,19 +1,38 @@
 package main.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import javax.persistence.*;
 
 import java.sql.Timestamp;
-import java.util.Calendar;
 
 /**
  * The type Car.
+ * <p>
+ * Brands, models, colours and their search keys are stored as integer ids of the
+ * reference tables car_brands, car_models and car_colours, see {@link CarDictionaries}.
  */
 @Entity
-@Table(name = "cars")
+@Table(name = "cars", indexes = {
+        @Index(name = "idx_cars_colour_key", columnList = "colour_key_id"),
+        @Index(name = "idx_cars_brand_key_colour_key", columnList = "brand_key_id, colour_key_id"),
+        @Index(name = "idx_cars_brand_key_model", columnList = "brand_key_id, model_id"),
+        @Index(name = "idx_cars_creation_date", columnList = "creationDate"),
+        @Index(name = "idx_cars_production_year_id", columnList = "productionYear, id")
+})
 public class Car
 {
+    /**
+     * Car id, allocated in blocks from the id_generators table so that inserts can be batched.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "car_id")
+    @TableGenerator(name = "car_id",
+            table = "id_generators",
+            pkColumnName = "sequence_name",
+            valueColumnName = "next_val",
+            pkColumnValue = "cars",
+            allocationSize = 500)
     private int id;
 
     /**
@@ -25,21 +44,40 @@ public class Car
     /**
      * Car brand(manufacturer).
      */
-    @Column(nullable = false)
+    @Convert(converter = CarNameConverter.Brand.class)
+    @Column(name = "brand_id", nullable = false)
     private String brand;
 
+    /**
+     * Search key of the brand, see {@link CarKeys#brand(String)}.
+     */
+    @JsonIgnore
+    @Convert(converter = CarNameConverter.Brand.class)
+    @Column(name = "brand_key_id", nullable = false)
+    private String brandKey;
+
     /**
      * Car model.
      */
-    @Column(nullable = false)
+    @Convert(converter = CarNameConverter.Model.class)
+    @Column(name = "model_id", nullable = false)
     private String model;
 
     /**
      * Car colour.
      */
-    @Column(nullable = false)
+    @Convert(converter = CarNameConverter.Colour.class)
+    @Column(name = "colour_id", nullable = false)
     private String colour;
 
+    /**
+     * Search key of the colour, see {@link CarKeys#colour(String)}.
+     */
+    @JsonIgnore
+    @Convert(converter = CarNameConverter.Colour.class)
+    @Column(name = "colour_key_id", nullable = false)
+    private String colourKey;
+
     /**
      * Car production year.
      */
@@ -52,6 +90,13 @@ public class Car
     @Enumerated(EnumType.STRING)
     private BodyType bodyType;
 
+    /**
+     * Row version, incremented by every update and exposed as the HTTP ETag.
+     */
+    @Version
+    @JsonIgnore
+    private long version;
+
     @Column(nullable = false)
     private java.sql.Timestamp creationDate = new java.sql.Timestamp(System.currentTimeMillis());
 
@@ -79,24 +124,33 @@ public class Car
     {
         this.licenseNumber = licenseNumber;
         this.brand = brand;
+        this.brandKey = CarKeys.brand(brand);
         this.model = model;
         this.colour = colour;
+        this.colourKey = CarKeys.colour(colour);
         this.productionYear = productionYear;
         this.bodyType =(BodyType) bodyType;
     }
 
+    /**
+     * Recomputes the search keys before the car is written.
+     */
+    @PrePersist
+    @PreUpdate
+    void updateKeys()
+    {
+        brandKey = CarKeys.brand(brand);
+        colourKey = CarKeys.colour(colour);
+    }
+
     /**
      * Is correct boolean.
      *
      * @return the boolean
+     * @see CarValidator#validate(Car)
      */
     public boolean isCorrect(){
-        return (licenseNumber.matches("^[АВЕКМНОРСТУХавекмнорстух]\\d{3}(?<!000)[АВЕКМНОРСТУХавекмнорстух]{2}\\d{2,3}$")
-                && !brand.isEmpty()
-                && !model.isEmpty()
-                && !colour.isEmpty()
-                && !(productionYear < 1885)
-                && !(productionYear > Calendar.getInstance().get(Calendar.YEAR)));
+        return CarValidator.validate(this) == CarValidationCode.VALID;
     }
 
     /**
@@ -151,6 +205,16 @@ public class Car
      */
     public void setBrand(String brand) {
         this.brand = brand;
+        this.brandKey = CarKeys.brand(brand);
+    }
+
+    /**
+     * Gets brand key.
+     *
+     * @return the brand key
+     */
+    public String getBrandKey() {
+        return brandKey;
     }
 
     /**
@@ -187,6 +251,16 @@ public class Car
      */
     public void setColour(String colour) {
         this.colour = colour;
+        this.colourKey = CarKeys.colour(colour);
+    }
+
+    /**
+     * Gets colour key.
+     *
+     * @return the colour key
+     */
+    public String getColourKey() {
+        return colourKey;
     }
 
     /**
@@ -242,4 +316,22 @@ public class Car
     public void setCreationDate(Timestamp creationDate) {
         this.creationDate = creationDate;
     }
+
+    /**
+     * Gets version.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets version.
+     *
+     * @param version the version
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
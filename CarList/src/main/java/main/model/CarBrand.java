@@ -0,0 +1,13 @@
+package main.model;
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+/**
+ * Brands and brand keys of cars, see {@link CarDictionaries#brands()}.
+ */
+@Entity
+@Table(name = "car_brands")
+public class CarBrand extends CarName
+{
+}
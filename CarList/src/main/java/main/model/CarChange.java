@@ -0,0 +1,98 @@
+package main.model;
+
+import javax.persistence.*;
+
+import java.sql.Timestamp;
+
+/**
+ * The type Car change.
+ * <p>
+ * One row of the car_changes outbox, written by {@link CarChangeLog} in the transaction of
+ * the car write it records.
+ */
+@Entity
+@Table(name = "car_changes")
+public class CarChange
+{
+    /**
+     * Position in the change log, assigned in commit order.
+     */
+    @Id
+    private long seq;
+
+    /**
+     * Id of the changed car.
+     */
+    @Column(nullable = false)
+    private int carId;
+
+    /**
+     * Kind of write.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private CarChangeType type;
+
+    /**
+     * Version of the car after the write, null when deleted.
+     */
+    private Long version;
+
+    @Column(nullable = false)
+    private Timestamp changedAt;
+
+    /**
+     * Instantiates a new Car change.
+     */
+    public CarChange(){}
+
+    /**
+     * Gets seq.
+     *
+     * @return the seq
+     */
+    public long getSeq()
+    {
+        return seq;
+    }
+
+    /**
+     * Gets car id.
+     *
+     * @return the car id
+     */
+    public int getCarId()
+    {
+        return carId;
+    }
+
+    /**
+     * Gets type.
+     *
+     * @return the type
+     */
+    public CarChangeType getType()
+    {
+        return type;
+    }
+
+    /**
+     * Gets version.
+     *
+     * @return the version
+     */
+    public Long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Gets changed at.
+     *
+     * @return the changed at
+     */
+    public Timestamp getChangedAt()
+    {
+        return changedAt;
+    }
+}
@@ -0,0 +1,237 @@
+package main.model;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntSupplier;
+
+/**
+ * The transactional outbox of car writes: each write runs in a transaction that also inserts
+ * one {@link CarChange} per written car into car_changes, so a change is visible exactly when
+ * the write is committed.
+ * <p>
+ * Positions are reserved from the car_changes row of id_generators as the last statement
+ * before the commit. The row stays locked until then, so writers commit in the order of their
+ * positions and a reader following the log never passes a position that is still to be
+ * committed. Writes of different cars only wait for each other for the duration of that
+ * last statement and the commit.
+ * <p>
+ * An insert holds its connection while Hibernate takes a block of car ids from id_generators
+ * on a second connection, so concurrent inserts are bounded below the size of the connection
+ * pool: otherwise inserts holding every connection would all wait for the one taking a
+ * block, which waits for a connection. Every write of new cars takes ids from that generator,
+ * so any other caller persisting cars (there is none besides {@link #insert} today) must go
+ * through the same semaphore.
+ * <p>
+ * Declared a repository so that a constraint violation found while flushing is thrown as a
+ * {@link org.springframework.dao.DataIntegrityViolationException}.
+ */
+@Repository
+public class CarChangeLog
+{
+    /**
+     * The name of the id_generators row holding the last reserved position.
+     */
+    static final String SEQUENCE = "car_changes";
+
+    private static final String INSERT = "insert into car_changes (seq, car_id, type, version, changed_at)"
+            + " values (?, ?, ?, ?, ?)";
+
+    private static final int[] INSERT_TYPES = {Types.BIGINT, Types.INTEGER, Types.VARCHAR, Types.BIGINT, Types.TIMESTAMP};
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final List<Runnable> commitListeners = new CopyOnWriteArrayList<>();
+
+    private final Semaphore inserts;
+
+    /**
+     * Instantiates a new Car change log.
+     *
+     * @param dataSource         the data source, whose connection is the one of the transaction
+     * @param transactionManager the transaction manager
+     */
+    public CarChangeLog(DataSource dataSource, PlatformTransactionManager transactionManager)
+    {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.inserts = new Semaphore(insertPermits(dataSource));
+    }
+
+    /**
+     * Gets the number of inserts allowed at once: one less than the connections of the pool.
+     *
+     * @param dataSource the data source
+     * @return the number of inserts, unbounded if the pool size is unknown
+     */
+    static int insertPermits(DataSource dataSource)
+    {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return Math.max(1, dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize() - 1);
+            }
+        }
+        catch (SQLException e) {
+            // not a pool we know the size of
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Runs a listener after every commit of recorded changes in this process.
+     *
+     * @param listener the listener
+     */
+    public void onCommit(Runnable listener)
+    {
+        commitListeners.add(listener);
+    }
+
+    /**
+     * Inserts cars and records their creation in one transaction, waiting for one of the
+     * inserts allowed at once.
+     *
+     * @param cars   the cars, whose ids the insert assigns
+     * @param insert the insert
+     */
+    public void insert(Collection<Car> cars, Runnable insert)
+    {
+        inserts.acquireUninterruptibly();
+        try {
+            transactionTemplate.execute(status -> {
+                insert.run();
+                entityManager.flush();
+                List<Object[]> rows = new ArrayList<>(cars.size());
+                for (Car car : cars) {
+                    rows.add(new Object[]{null, car.getId(), CarChangeType.CREATED.name(), car.getVersion(), null});
+                }
+                record(rows);
+                return null;
+            });
+        }
+        finally {
+            inserts.release();
+        }
+    }
+
+    /**
+     * Updates a car and records the update in one transaction, when it changed a row.
+     *
+     * @param id     the id
+     * @param update the update, returning the number of updated rows
+     * @return the number of updated rows
+     */
+    public int update(int id, IntSupplier update)
+    {
+        return transactionTemplate.execute(status -> {
+            int updated = update.getAsInt();
+            if (updated > 0) {
+                Long version = jdbcTemplate.queryForObject("select version from cars where id = ?", Long.class, id);
+                List<Object[]> rows = new ArrayList<>(1);
+                rows.add(new Object[]{null, id, CarChangeType.UPDATED.name(), version, null});
+                record(rows);
+            }
+            return updated;
+        });
+    }
+
+    /**
+     * Deletes a car and records the deletion in one transaction, when it deleted a row.
+     *
+     * @param id     the id
+     * @param delete the delete, returning the number of deleted rows
+     * @return the number of deleted rows
+     */
+    public int delete(int id, IntSupplier delete)
+    {
+        return transactionTemplate.execute(status -> {
+            int deleted = delete.getAsInt();
+            if (deleted > 0) {
+                deleted(List.of(id));
+            }
+            return deleted;
+        });
+    }
+
+    /**
+     * Records the deletion of cars in the current transaction.
+     *
+     * @param ids the ids of the deleted cars
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleted(List<Integer> ids)
+    {
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            rows.add(new Object[]{null, id, CarChangeType.DELETED.name(), null, null});
+        }
+        record(rows);
+    }
+
+    /**
+     * Assigns positions and the change date to rows of car_changes, then inserts them.
+     */
+    private void record(List<Object[]> rows)
+    {
+        long seq = reserve(rows.size()) - rows.size();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (Object[] row : rows) {
+            row[0] = ++seq;
+            row[4] = now;
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows, INSERT_TYPES);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
+        {
+            @Override
+            public void afterCommit()
+            {
+                commitListeners.forEach(Runnable::run);
+            }
+        });
+    }
+
+    /**
+     * Reserves positions, locking the counter row until the end of the transaction.
+     *
+     * @return the last reserved position
+     */
+    private long reserve(int count)
+    {
+        String update = "update id_generators set next_val = next_val + ? where sequence_name = ?";
+        if (jdbcTemplate.update(update, count, SEQUENCE) == 0) {
+            try {
+                jdbcTemplate.update("insert into id_generators (sequence_name, next_val) values (?, ?)", SEQUENCE, count);
+                return count;
+            }
+            catch (DuplicateKeyException e) {
+                jdbcTemplate.update(update, count, SEQUENCE);
+            }
+        }
+        return jdbcTemplate.queryForObject("select next_val from id_generators where sequence_name = ?",
+                Long.class, SEQUENCE);
+    }
+}
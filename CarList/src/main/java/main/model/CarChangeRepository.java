@@ -0,0 +1,31 @@
+package main.model;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+
+/**
+ * The interface Car change repository, reading the log written by {@link CarChangeLog}.
+ */
+@org.springframework.stereotype.Repository
+public interface CarChangeRepository extends Repository<CarChange, Long>
+{
+    /**
+     * Finds the changes following a position of the log, in log order.
+     *
+     * @param seq      the position, exclusive
+     * @param pageable the maximum number of changes
+     * @return the changes
+     */
+    List<CarChange> findBySeqGreaterThanOrderBySeqAsc(long seq, Pageable pageable);
+
+    /**
+     * Finds the position of the last committed change.
+     *
+     * @return the position, or null while the log is empty
+     */
+    @Query("select max(c.seq) from CarChange c")
+    Long findLastSeq();
+}
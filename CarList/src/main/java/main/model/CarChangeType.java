@@ -0,0 +1,13 @@
+package main.model;
+
+/**
+ * Enum, as storage for the kinds of writes recorded in the change log.
+ *
+ * @see CarChange
+ */
+public enum CarChangeType
+{
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,13 @@
+package main.model;
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+/**
+ * Colours and colour keys of cars, see {@link CarDictionaries#colours()}.
+ */
+@Entity
+@Table(name = "car_colours")
+public class CarColour extends CarName
+{
+}
@@ -0,0 +1,97 @@
+package main.model;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * The dictionaries of car brands, models and colours, stored by the cars as integer ids.
+ * <p>
+ * Names are inserted while Hibernate flushes a car, so the dictionaries use their own
+ * pool of two connections in auto-commit mode: the car transaction may still roll back,
+ * which would leave ids in memory that the table no longer has, and the request flushing
+ * the car already holds a connection of the main pool. A name inserted for a car that is
+ * then rolled back stays in its table unused. The number of names in memory is published
+ * as {@code cars.dictionary.size} tagged with the table.
+ */
+@Component
+public class CarDictionaries
+{
+    private final HikariDataSource dataSource;
+
+    private final CarDictionary brands;
+
+    private final CarDictionary models;
+
+    private final CarDictionary colours;
+
+    /**
+     * Instantiates new Car dictionaries.
+     *
+     * @param properties the properties of the main data source
+     * @param registry   the meter registry
+     */
+    public CarDictionaries(DataSourceProperties properties, MeterRegistry registry)
+    {
+        dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("car-dictionary");
+        dataSource.setMaximumPoolSize(2);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        brands = dictionary("car_brands", jdbcTemplate, registry);
+        models = dictionary("car_models", jdbcTemplate, registry);
+        colours = dictionary("car_colours", jdbcTemplate, registry);
+    }
+
+    private static CarDictionary dictionary(String table, JdbcTemplate jdbcTemplate, MeterRegistry registry)
+    {
+        CarDictionary dictionary = new CarDictionary(table, jdbcTemplate);
+        Gauge.builder("cars.dictionary.size", dictionary, CarDictionary::size)
+                .tag("table", table)
+                .register(registry);
+        return dictionary;
+    }
+
+    /**
+     * Gets the dictionary of brands and brand keys.
+     *
+     * @return the dictionary
+     */
+    public CarDictionary brands()
+    {
+        return brands;
+    }
+
+    /**
+     * Gets the dictionary of models.
+     *
+     * @return the dictionary
+     */
+    public CarDictionary models()
+    {
+        return models;
+    }
+
+    /**
+     * Gets the dictionary of colours and colour keys.
+     *
+     * @return the dictionary
+     */
+    public CarDictionary colours()
+    {
+        return colours;
+    }
+
+    /**
+     * Closes the connection pool of the dictionaries.
+     */
+    @PreDestroy
+    public void close()
+    {
+        dataSource.close();
+    }
+}
@@ -0,0 +1,172 @@
+package main.model;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Two-way mapping between the names of a reference table and their integer ids.
+ * <p>
+ * Names are kept in memory once read, so converting a column costs one map lookup and
+ * every car loaded with a name shares the same String instance. A name missing from the
+ * table is inserted on first use; when another node inserts the same name concurrently,
+ * the unique constraint rejects the second row and its id is read back instead.
+ */
+public class CarDictionary
+{
+    private final String table;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    private final Map<Integer, String> names = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Car dictionary.
+     *
+     * @param table        the reference table, with an auto-increment id and a unique name
+     * @param jdbcTemplate the jdbc template, committing each statement on its own
+     */
+    public CarDictionary(String table, JdbcTemplate jdbcTemplate)
+    {
+        this.table = table;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Gets the id of the name, inserting the name if it is not in the table yet.
+     *
+     * @param name the name
+     * @return the id
+     */
+    public int id(String name)
+    {
+        Integer id = find(name);
+        return id != null ? id : insert(name);
+    }
+
+    /**
+     * Finds the id of the name without inserting it, so looking up an unknown name
+     * does not grow the table.
+     *
+     * @param name the name, may be null
+     * @return the id, null if the name is null or not in the table
+     */
+    public Integer find(String name)
+    {
+        if (name == null) {
+            return null;
+        }
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = select(name);
+            if (id != null) {
+                intern(id, name);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Finds the id of the name among the names in memory, without reading the table.
+     *
+     * @param name the name, may be null
+     * @return the id, null if the name is null or not in memory
+     */
+    public Integer findLoaded(String name)
+    {
+        return name == null ? null : ids.get(name);
+    }
+
+    /**
+     * Reads every name of the table into memory.
+     */
+    public void loadAll()
+    {
+        jdbcTemplate.query("select id, name from " + table,
+                (RowCallbackHandler) row -> intern(row.getInt(1), new String(row.getBytes(2), StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Gets the name of the id.
+     *
+     * @param id the id
+     * @return the name
+     * @throws EmptyResultDataAccessException if the id is not in the table
+     */
+    public String name(int id)
+    {
+        String name = names.get(id);
+        if (name == null) {
+            byte[] bytes = DataAccessUtils.requiredSingleResult(jdbcTemplate.query(
+                    "select name from " + table + " where id = ?", (row, i) -> row.getBytes(1), id));
+            name = intern(id, new String(bytes, StandardCharsets.UTF_8));
+        }
+        return name;
+    }
+
+    /**
+     * Gets the number of names in memory.
+     *
+     * @return the size
+     */
+    public int size()
+    {
+        return names.size();
+    }
+
+    private Integer select(String name)
+    {
+        return DataAccessUtils.singleResult(jdbcTemplate.queryForList(
+                "select id from " + table + " where name = ?", Integer.class, bytes(name)));
+    }
+
+    private int insert(String name)
+    {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        try {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        "insert into " + table + " (name) values (?)", Statement.RETURN_GENERATED_KEYS);
+                statement.setBytes(1, bytes(name));
+                return statement;
+            }, keyHolder);
+        } catch (DuplicateKeyException e) {
+            Integer id = select(name);
+            if (id == null) {
+                throw e;
+            }
+            intern(id, name);
+            return id;
+        }
+        int id = keyHolder.getKey().intValue();
+        intern(id, name);
+        return id;
+    }
+
+    /**
+     * Maps the id and the name both ways, keeping the instance of the name mapped first.
+     */
+    private String intern(int id, String name)
+    {
+        String interned = names.computeIfAbsent(id, key -> name);
+        ids.putIfAbsent(interned, id);
+        return interned;
+    }
+
+    private static byte[] bytes(String name)
+    {
+        return name.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,86 @@
+package main.model;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Search keys of brands and colours.
+ * <p>
+ * A key is the value trimmed, with inner whitespace collapsed to one space, lower-cased
+ * and mapped to its canonical spelling when it has a known alias, so "Grey ", "gray" and
+ * "GRAY" share the key "gray". Keys are stored in indexed columns next to the values
+ * and compared with plain equality, which keeps lookups index-backed.
+ */
+public final class CarKeys
+{
+    private static final Map<String, String> BRAND_ALIASES = new HashMap<>();
+
+    private static final Map<String, String> COLOUR_ALIASES = new HashMap<>();
+
+    static {
+        BRAND_ALIASES.put("vw", "volkswagen");
+        BRAND_ALIASES.put("mercedes", "mercedes-benz");
+        BRAND_ALIASES.put("chevy", "chevrolet");
+        BRAND_ALIASES.put("лада", "lada");
+        BRAND_ALIASES.put("ваз", "lada");
+
+        COLOUR_ALIASES.put("grey", "gray");
+        COLOUR_ALIASES.put("silver grey", "silver");
+        COLOUR_ALIASES.put("dark grey", "dark gray");
+        COLOUR_ALIASES.put("light grey", "light gray");
+    }
+
+    private CarKeys() {}
+
+    /**
+     * Gets the key of a brand.
+     *
+     * @param brand the brand, may be null
+     * @return the key, null for a null brand
+     */
+    public static String brand(String brand)
+    {
+        return key(brand, BRAND_ALIASES);
+    }
+
+    /**
+     * Gets the key of a colour.
+     *
+     * @param colour the colour, may be null
+     * @return the key, null for a null colour
+     */
+    public static String colour(String colour)
+    {
+        return key(colour, COLOUR_ALIASES);
+    }
+
+    private static String key(String value, Map<String, String> aliases)
+    {
+        if (value == null) {
+            return null;
+        }
+        String key = normalise(value);
+        return aliases.getOrDefault(key, key);
+    }
+
+    private static String normalise(String value)
+    {
+        StringBuilder key = new StringBuilder(value.length());
+        boolean space = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = key.length() > 0;
+            }
+            else {
+                if (space) {
+                    key.append(' ');
+                    space = false;
+                }
+                key.append(c);
+            }
+        }
+        return key.toString().toLowerCase(Locale.ROOT);
+    }
+}
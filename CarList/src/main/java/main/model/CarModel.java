@@ -0,0 +1,13 @@
+package main.model;
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+/**
+ * Models of cars, see {@link CarDictionaries#models()}.
+ */
+@Entity
+@Table(name = "car_models")
+public class CarModel extends CarName
+{
+}
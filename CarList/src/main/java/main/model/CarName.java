@@ -0,0 +1,26 @@
+package main.model;
+
+import javax.persistence.*;
+
+/**
+ * Row of a reference table of names, see {@link CarDictionary}.
+ * <p>
+ * The name is stored as its UTF-8 bytes, so its unique constraint tells apart names
+ * differing only in case or accents whatever the collation of the database.
+ */
+@MappedSuperclass
+public abstract class CarName
+{
+    /**
+     * Name id, referenced by the cars.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int id;
+
+    /**
+     * UTF-8 bytes of the name.
+     */
+    @Column(unique = true, nullable = false, columnDefinition = "varbinary(1020)")
+    private byte[] name;
+}
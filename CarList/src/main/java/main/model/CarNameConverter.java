@@ -0,0 +1,85 @@
+package main.model;
+
+import javax.persistence.AttributeConverter;
+
+/**
+ * Stores a name attribute of a car as the id of the name in a {@link CarDictionary}.
+ * <p>
+ * Converters are created by Hibernate through the Spring bean container, which injects
+ * the dictionaries. Query parameters compared with a converted attribute are converted
+ * too, so queries keep comparing names.
+ */
+public abstract class CarNameConverter implements AttributeConverter<String, Integer>
+{
+    private final CarDictionary dictionary;
+
+    /**
+     * Instantiates a new Car name converter.
+     *
+     * @param dictionary the dictionary
+     */
+    protected CarNameConverter(CarDictionary dictionary)
+    {
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public Integer convertToDatabaseColumn(String name)
+    {
+        return name == null ? null : dictionary.id(name);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Integer id)
+    {
+        return id == null ? null : dictionary.name(id);
+    }
+
+    /**
+     * Converter of brands and brand keys.
+     */
+    public static class Brand extends CarNameConverter
+    {
+        /**
+         * Instantiates a new Brand converter.
+         *
+         * @param dictionaries the dictionaries
+         */
+        public Brand(CarDictionaries dictionaries)
+        {
+            super(dictionaries.brands());
+        }
+    }
+
+    /**
+     * Converter of models.
+     */
+    public static class Model extends CarNameConverter
+    {
+        /**
+         * Instantiates a new Model converter.
+         *
+         * @param dictionaries the dictionaries
+         */
+        public Model(CarDictionaries dictionaries)
+        {
+            super(dictionaries.models());
+        }
+    }
+
+    /**
+     * Converter of colours and colour keys.
+     */
+    public static class Colour extends CarNameConverter
+    {
+        /**
+         * Instantiates a new Colour converter.
+         *
+         * @param dictionaries the dictionaries
+         */
+        public Colour(CarDictionaries dictionaries)
+        {
+            super(dictionaries.colours());
+        }
+    }
+}
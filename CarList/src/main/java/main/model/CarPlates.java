@@ -0,0 +1,227 @@
+package main.model;
+
+import java.util.Arrays;
+
+/**
+ * Codes of license numbers for searching them, see {@link CarValidator} for the format.
+ * <p>
+ * A plate is coded as an int in mixed radix, one digit per character: the letters in
+ * alphabetical order, the digits, and the region ranked so that a two digit region comes
+ * just before the three digit regions it starts. Codes are therefore ordered like the plates,
+ * and the plates starting with a given prefix have the codes of one range. Letters are
+ * compared in upper case, and the Latin letters they look like are read as them, as typed on
+ * a Latin keyboard. Plates differing only in the case of their letters have the same code.
+ */
+public final class CarPlates
+{
+    /**
+     * The letters of plates, in alphabetical order.
+     */
+    static final String LETTERS = "АВЕКМНОРСТУХ";
+
+    /**
+     * The Latin letters looking like each of {@link #LETTERS}.
+     */
+    private static final String LATIN_LETTERS = "ABEKMHOPCTYX";
+
+    private static final String SYMBOLS = LETTERS + "0123456789";
+
+    /**
+     * Number of regions: a two digit region then the ten three digit ones it starts.
+     */
+    private static final int REGIONS = 100 * 11;
+
+    /**
+     * Radix of each of the first six characters: letter, three digits, two letters.
+     */
+    private static final int[] RADIX = {12, 10, 10, 10, 12, 12};
+
+    /**
+     * Number of characters before the region.
+     */
+    private static final int SERIES_LENGTH = RADIX.length;
+
+    private CarPlates() {}
+
+    /**
+     * Codes a plate.
+     *
+     * @param plate the plate
+     * @return the code, or -1 if the plate is not in the format
+     */
+    public static int code(CharSequence plate)
+    {
+        int length = plate.length();
+        if (length != SERIES_LENGTH + 2 && length != SERIES_LENGTH + 3) {
+            return -1;
+        }
+        int series = 0;
+        boolean zeroNumber = true;
+        for (int i = 0; i < SERIES_LENGTH; i++) {
+            int digit = digit(plate.charAt(i), i);
+            if (digit < 0) {
+                return -1;
+            }
+            if (i >= 1 && i <= 3) {
+                zeroNumber &= digit == 0;
+            }
+            series = series * RADIX[i] + digit;
+        }
+        int region = region(plate.subSequence(SERIES_LENGTH, length));
+        return zeroNumber || region < 0 ? -1 : series * REGIONS + region;
+    }
+
+    /**
+     * Gets the plate of a code, in upper case.
+     *
+     * @param code the code
+     * @return the plate
+     */
+    public static String plate(int code)
+    {
+        char[] plate = new char[SERIES_LENGTH + 3];
+        int region = code % REGIONS;
+        int series = code / REGIONS;
+        for (int i = SERIES_LENGTH - 1; i >= 0; i--) {
+            int digit = series % RADIX[i];
+            series /= RADIX[i];
+            plate[i] = RADIX[i] == 10 ? (char) ('0' + digit) : LETTERS.charAt(digit);
+        }
+        plate[SERIES_LENGTH] = (char) ('0' + region / 110);
+        plate[SERIES_LENGTH + 1] = (char) ('0' + region / 11 % 10);
+        if (region % 11 == 0) {
+            return new String(plate, 0, SERIES_LENGTH + 2);
+        }
+        plate[SERIES_LENGTH + 2] = (char) ('0' + region % 11 - 1);
+        return new String(plate);
+    }
+
+    /**
+     * Ranks a region.
+     *
+     * @param region the region, two or three digits
+     * @return the rank, or -1 if not a region
+     */
+    public static int region(CharSequence region)
+    {
+        int length = region.length();
+        if (length != 2 && length != 3) {
+            return -1;
+        }
+        int rank = 0;
+        for (int i = 0; i < length; i++) {
+            char c = region.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            rank = i < 2 ? rank * 10 + (c - '0') : rank;
+        }
+        return rank * 11 + (length == 3 ? 1 + region.charAt(2) - '0' : 0);
+    }
+
+    /**
+     * Gets the region rank of a code.
+     *
+     * @param code the code
+     * @return the rank, as given by {@link #region(CharSequence)}
+     */
+    public static int regionOf(int code)
+    {
+        return code % REGIONS;
+    }
+
+    /**
+     * Gets the range of the codes of the plates starting with a prefix.
+     *
+     * @param prefix the prefix, empty for every plate
+     * @return the first and last code of the range, or null if no plate starts with the prefix
+     */
+    public static int[] range(CharSequence prefix)
+    {
+        int length = prefix.length();
+        if (length > SERIES_LENGTH + 3) {
+            return null;
+        }
+        int low = 0;
+        int high = 0;
+        for (int i = 0; i < SERIES_LENGTH; i++) {
+            int digit = i < length ? digit(prefix.charAt(i), i) : -1;
+            if (i < length && digit < 0) {
+                return null;
+            }
+            low = low * RADIX[i] + (i < length ? digit : 0);
+            high = high * RADIX[i] + (i < length ? digit : RADIX[i] - 1);
+        }
+        int[] regions = {0, REGIONS - 1};
+        if (length > SERIES_LENGTH) {
+            CharSequence region = prefix.subSequence(SERIES_LENGTH, length);
+            for (int i = 0; i < region.length(); i++) {
+                if (region.charAt(i) < '0' || region.charAt(i) > '9') {
+                    return null;
+                }
+            }
+            int tens = region.charAt(0) - '0';
+            regions = region.length() == 1
+                    ? new int[]{tens * 110, tens * 110 + 109}
+                    : region.length() == 2
+                    ? new int[]{region(region), region(region) + 10}
+                    : new int[]{region(region), region(region)};
+        }
+        return new int[]{low * REGIONS + regions[0], high * REGIONS + regions[1]};
+    }
+
+    /**
+     * Gets the codes of the plates at most one insertion, deletion or substitution of a
+     * character away from the given text, which need not be a plate itself.
+     *
+     * @param text the text
+     * @return the codes, sorted
+     */
+    public static int[] withinOneEdit(CharSequence text)
+    {
+        int length = text.length();
+        if (length < SERIES_LENGTH + 1 || length > SERIES_LENGTH + 4) {
+            return new int[0];
+        }
+        int[] codes = new int[1 + length + (length + 1) * SYMBOLS.length() + length * SYMBOLS.length()];
+        int count = 0;
+        StringBuilder candidate = new StringBuilder(length + 1);
+        codes[count++] = code(text);
+        for (int i = 0; i < length; i++) {
+            candidate.setLength(0);
+            candidate.append(text, 0, i).append(text, i + 1, length);
+            codes[count++] = code(candidate);
+        }
+        for (int i = 0; i <= length; i++) {
+            for (int s = 0; s < SYMBOLS.length(); s++) {
+                candidate.setLength(0);
+                candidate.append(text, 0, i).append(SYMBOLS.charAt(s)).append(text, i, length);
+                codes[count++] = code(candidate);
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            candidate.setLength(0);
+            candidate.append(text);
+            for (int s = 0; s < SYMBOLS.length(); s++) {
+                candidate.setCharAt(i, SYMBOLS.charAt(s));
+                codes[count++] = code(candidate);
+            }
+        }
+        return Arrays.stream(codes, 0, count).filter(code -> code >= 0).sorted().distinct().toArray();
+    }
+
+    /**
+     * Gets the value of a character at a position before the region.
+     *
+     * @return the value, or -1 if the character cannot be at that position
+     */
+    private static int digit(char c, int position)
+    {
+        if (RADIX[position] == 10) {
+            return c >= '0' && c <= '9' ? c - '0' : -1;
+        }
+        char upper = Character.toUpperCase(c);
+        int letter = LETTERS.indexOf(upper);
+        return letter >= 0 ? letter : LATIN_LETTERS.indexOf(upper);
+    }
+}
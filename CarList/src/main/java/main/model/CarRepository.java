@@ -1,13 +1,155 @@
 package main.model;
 
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 /**
  * The interface Car repository.
  */
 @Repository
-public interface CarRepository extends CrudRepository<Car, Integer>
+public interface CarRepository extends PagingAndSortingRepository<Car, Integer>, CarRepositoryCustom
 {
+    /**
+     * Expected version matching any version of a car.
+     */
+    long ANY_VERSION = -1;
+
+    /**
+     * Finds which of the given license numbers are already registered.
+     *
+     * @param licenseNumbers the license numbers
+     * @return the registered license numbers
+     */
+    @Query("select c.licenseNumber from Car c where c.licenseNumber in :licenseNumbers")
+    List<String> findExistingLicenseNumbers(@Param("licenseNumbers") Collection<String> licenseNumbers);
+
+    /**
+     * Finds the first created car, served by the creation date index.
+     *
+     * @return the first created car
+     */
+    Optional<Car> findFirstByOrderByCreationDateAsc();
+
+    /**
+     * Finds the last created car, served by the creation date index.
+     *
+     * @return the last created car
+     */
+    Optional<Car> findFirstByOrderByCreationDateDesc();
+
+    /**
+     * Finds the first page of cars ordered by id.
+     *
+     * @param pageable the page size
+     * @return the cars
+     */
+    List<Car> findAllByOrderByIdAsc(Pageable pageable);
+
+    /**
+     * Finds the page of cars following the given id, ordered by id.
+     *
+     * @param id       the id of the last car of the previous page
+     * @param pageable the page size
+     * @return the cars
+     */
+    List<Car> findByIdGreaterThanOrderByIdAsc(int id, Pageable pageable);
+
+    /**
+     * Finds the first page of cars ordered by production year and id,
+     * served by the (productionYear, id) index.
+     *
+     * @param pageable the page size
+     * @return the cars sorted by year
+     */
+    List<Car> findAllByOrderByProductionYearAscIdAsc(Pageable pageable);
+
+    /**
+     * Finds the page of cars following the given (productionYear, id) key,
+     * ordered by production year and id.
+     *
+     * @param productionYear the production year of the last car of the previous page
+     * @param id             the id of the last car of the previous page
+     * @param pageable       the page size
+     * @return the cars sorted by year
+     */
+    @Query("select c from Car c"
+            + " where c.productionYear > :productionYear"
+            + " or (c.productionYear = :productionYear and c.id > :id)"
+            + " order by c.productionYear asc, c.id asc")
+    List<Car> findSortedByYearAfter(@Param("productionYear") int productionYear,
+                                    @Param("id") int id,
+                                    Pageable pageable);
+
+    /**
+     * Streams all cars ordered by id through a forward-only cursor, fetching
+     * 1000 rows per round-trip. Must be consumed and closed inside a transaction.
+     *
+     * @return the stream of cars
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    Stream<Car> streamAllByOrderByIdAsc();
+
+    /**
+     * Sets the colour of the car and increments its version in a single UPDATE statement.
+     *
+     * @param id              the id
+     * @param colour          the colour
+     * @param colourKey       the colour key, see {@link CarKeys#colour(String)}
+     * @param expectedVersion the version the car must have, or {@link #ANY_VERSION}
+     * @return the number of updated rows, 0 if the car does not exist or has another version
+     */
+    @Modifying
+    @Transactional
+    @Query("update Car c set c.colour = :colour, c.colourKey = :colourKey, c.version = c.version + 1"
+            + " where c.id = :id and (:expectedVersion < 0L or c.version = :expectedVersion)")
+    int updateColour(@Param("id") int id,
+                     @Param("colour") String colour,
+                     @Param("colourKey") String colourKey,
+                     @Param("expectedVersion") long expectedVersion);
+
+    /**
+     * Sets the license number of the car and increments its version in a single UPDATE statement.
+     *
+     * @param id              the id
+     * @param licenseNumber   the license number
+     * @param expectedVersion the version the car must have, or {@link #ANY_VERSION}
+     * @return the number of updated rows, 0 if the car does not exist or has another version
+     */
+    @Modifying
+    @Transactional
+    @Query("update Car c set c.licenseNumber = :licenseNumber, c.version = c.version + 1"
+            + " where c.id = :id and (:expectedVersion < 0L or c.version = :expectedVersion)")
+    int updateLicenseNumber(@Param("id") int id,
+                            @Param("licenseNumber") String licenseNumber,
+                            @Param("expectedVersion") long expectedVersion);
 
+    /**
+     * Deletes the car in a single DELETE statement.
+     *
+     * @param id              the id
+     * @param expectedVersion the version the car must have, or {@link #ANY_VERSION}
+     * @return the number of deleted rows, 0 if the car does not exist or has another version
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from Car c where c.id = :id and (:expectedVersion < 0L or c.version = :expectedVersion)")
+    int deleteCarById(@Param("id") int id, @Param("expectedVersion") long expectedVersion);
 }
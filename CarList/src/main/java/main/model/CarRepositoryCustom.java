@@ -0,0 +1,82 @@
+package main.model;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Car repository methods built at runtime, implemented by {@link CarRepositoryImpl}.
+ */
+public interface CarRepositoryCustom
+{
+    /**
+     * Finds cars with the colour key of the given colour, served by the colour key index.
+     * A colour whose key is not in the dictionary matches no car and is not looked up.
+     *
+     * @param colour the colour, see {@link CarKeys#colour(String)}
+     * @return the cars with the given colour
+     */
+    List<Car> findByColour(String colour);
+
+    /**
+     * Finds cars with the brand key of the given brand, served by the brand key index.
+     * A brand whose key is not in the dictionary matches no car and is not looked up.
+     *
+     * @param brand the brand, see {@link CarKeys#brand(String)}
+     * @return the cars of the given brand
+     */
+    List<Car> findByBrand(String brand);
+
+    /**
+     * Writes the set fields of the update and increments the version in a single UPDATE statement.
+     *
+     * @param id              the id
+     * @param update          the update
+     * @param expectedVersion the version the car must have, or {@link CarRepository#ANY_VERSION}
+     * @return the number of updated rows, 0 if the car does not exist or has another version
+     */
+    int update(int id, CarUpdate update, long expectedVersion);
+
+    /**
+     * Deletes the cars matching every given filter, brands and colours compared by their
+     * {@link CarKeys}, with set-based DELETE statements
+     * of at most {@code chunkSize} rows, each in its own transaction, so locks are
+     * only held for one chunk at a time. Each chunk locks the ids it deletes first and
+     * records them in the {@link CarChangeLog} before its commit. When a chunk fails, the
+     * chunks before it stay deleted.
+     *
+     * @param brand          the brand, or null for any
+     * @param colour         the colour, or null for any
+     * @param productionYear the production year, or null for any
+     * @param chunkSize      the maximum number of rows deleted by one statement
+     * @param deleted        the consumer of the ids deleted by each chunk, called after its commit
+     * @return the number of deleted rows
+     * @throws IllegalArgumentException if the chunk size is not positive
+     */
+    long deleteAllMatching(String brand, String colour, Integer productionYear, int chunkSize,
+                           Consumer<List<Integer>> deleted);
+
+    /**
+     * Counts the cars matching every given filter by brand key, colour key, body type and
+     * production year bucket, with one GROUP BY per facet sent as a single statement.
+     * Brands and colours are filtered by their {@link CarKeys}.
+     *
+     * @param brand          the brand, or null for any
+     * @param colour         the colour, or null for any
+     * @param productionYear the production year, or null for any
+     * @param yearBucket     the width of the production year buckets
+     * @return the statistics
+     */
+    CarStats countFacets(String brand, String colour, Integer productionYear, int yearBucket);
+
+    /**
+     * Finds one page of the cars matching the search, following the given position in the
+     * search order. Reads only the page, without counting the matches.
+     *
+     * @param search the search
+     * @param after  the keys of the last car of the previous page, or null for the first page
+     * @param limit  the page size
+     * @return the cars
+     * @throws IllegalArgumentException if the sort or order of the search is not valid
+     */
+    List<Car> search(CarSearch search, long[] after, int limit);
+}
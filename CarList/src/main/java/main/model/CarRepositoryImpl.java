@@ -0,0 +1,271 @@
+package main.model;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The type Car repository impl.
+ */
+public class CarRepositoryImpl implements CarRepositoryCustom
+{
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CarDictionaries dictionaries;
+
+    private final CarChangeLog changeLog;
+
+    /**
+     * Instantiates a new Car repository impl.
+     *
+     * @param transactionManager the transaction manager
+     * @param dictionaries       the dictionaries of names
+     * @param changeLog          the change log, given the deleted cars
+     */
+    public CarRepositoryImpl(PlatformTransactionManager transactionManager, CarDictionaries dictionaries,
+                             CarChangeLog changeLog)
+    {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dictionaries = dictionaries;
+        this.changeLog = changeLog;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Car> findByColour(String colour)
+    {
+        String colourKey = CarKeys.colour(colour);
+        if (dictionaries.colours().find(colourKey) == null) {
+            return Collections.emptyList();
+        }
+        return entityManager.createQuery("select c from Car c where c.colourKey = :colourKey", Car.class)
+                .setParameter("colourKey", colourKey)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Car> findByBrand(String brand)
+    {
+        String brandKey = CarKeys.brand(brand);
+        if (dictionaries.brands().find(brandKey) == null) {
+            return Collections.emptyList();
+        }
+        return entityManager.createQuery("select c from Car c where c.brandKey = :brandKey", Car.class)
+                .setParameter("brandKey", brandKey)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional
+    public int update(int id, CarUpdate update, long expectedVersion)
+    {
+        Map<String, Object> values = new LinkedHashMap<>();
+        putIfSet(values, "licenseNumber", update.getLicenseNumber());
+        putIfSet(values, "brand", update.getBrand());
+        putIfSet(values, "brandKey", CarKeys.brand(update.getBrand()));
+        putIfSet(values, "model", update.getModel());
+        putIfSet(values, "colour", update.getColour());
+        putIfSet(values, "colourKey", CarKeys.colour(update.getColour()));
+        putIfSet(values, "productionYear", update.getProductionYear());
+        putIfSet(values, "bodyType", update.getBodyType());
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("update sets no field");
+        }
+        StringBuilder jpql = new StringBuilder("update Car c set c.version = c.version + 1");
+        for (String field : values.keySet()) {
+            jpql.append(", c.").append(field).append(" = :").append(field);
+        }
+        jpql.append(" where c.id = :id");
+        if (expectedVersion != CarRepository.ANY_VERSION) {
+            jpql.append(" and c.version = :expectedVersion");
+        }
+        Query query = entityManager.createQuery(jpql.toString()).setParameter("id", id);
+        if (expectedVersion != CarRepository.ANY_VERSION) {
+            query.setParameter("expectedVersion", expectedVersion);
+        }
+        values.forEach(query::setParameter);
+        return query.executeUpdate();
+    }
+
+    @Override
+    public long deleteAllMatching(String brand, String colour, Integer productionYear, int chunkSize,
+                                  Consumer<List<Integer>> deleted)
+    {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunk size must be positive: " + chunkSize);
+        }
+        Map<String, Object> filters = filters(brand, colour, productionYear);
+        if (filters == null) {
+            return 0;
+        }
+        String sql = "select id from cars" + where(filters) + " order by id limit " + chunkSize + " for update";
+        long deletedCount = 0;
+        List<Integer> chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> {
+                Query query = entityManager.createNativeQuery(sql);
+                filters.forEach(query::setParameter);
+                List<Integer> ids = new ArrayList<>(chunkSize);
+                for (Object id : query.getResultList()) {
+                    ids.add(((Number) id).intValue());
+                }
+                if (ids.isEmpty()) {
+                    return ids;
+                }
+                entityManager.createNativeQuery("delete from cars where id in (:ids)")
+                        .setParameter("ids", ids)
+                        .executeUpdate();
+                changeLog.deleted(ids);
+                return ids;
+            });
+            if (!chunk.isEmpty()) {
+                deleted.accept(chunk);
+            }
+            deletedCount += chunk.size();
+        } while (chunk.size() == chunkSize);
+        return deletedCount;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CarStats countFacets(String brand, String colour, Integer productionYear, int yearBucket)
+    {
+        if (yearBucket < 1) {
+            throw new IllegalArgumentException("year bucket must be positive: " + yearBucket);
+        }
+        Map<String, Object> filters = filters(brand, colour, productionYear);
+        if (filters == null) {
+            return new CarStats(yearBucket);
+        }
+        String where = where(filters);
+        String bucket = "production_year - mod(production_year, " + yearBucket + ")";
+        String sql = "select 'bodyType', body_type, null, count(*) from cars" + where + " group by body_type"
+                + " union all select 'brand', null, brand_key_id, count(*) from cars" + where + " group by brand_key_id"
+                + " union all select 'colour', null, colour_key_id, count(*) from cars" + where
+                + " group by colour_key_id"
+                + " union all select 'productionYear', null, " + bucket + ", count(*) from cars" + where
+                + " group by " + bucket
+                + " order by 1, 4 desc";
+        Query query = entityManager.createNativeQuery(sql);
+        filters.forEach(query::setParameter);
+        CarStats stats = new CarStats(yearBucket);
+        for (Object row : query.getResultList()) {
+            Object[] columns = (Object[]) row;
+            long count = ((Number) columns[3]).longValue();
+            switch ((String) columns[0]) {
+                case "brand":
+                    stats.addBrand(dictionaries.brands().name(((Number) columns[2]).intValue()), count);
+                    break;
+                case "colour":
+                    stats.addColour(dictionaries.colours().name(((Number) columns[2]).intValue()), count);
+                    break;
+                case "bodyType":
+                    if (columns[1] != null) {
+                        stats.addBodyType((String) columns[1], count);
+                    }
+                    break;
+                default:
+                    stats.addProductionYears(((Number) columns[2]).intValue(), count);
+            }
+        }
+        return stats;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Car> search(CarSearch search, long[] after, int limit)
+    {
+        if (unknown(dictionaries.brands(), CarKeys.brand(search.getBrand()))
+                || unknown(dictionaries.models(), search.getModel())
+                || unknown(dictionaries.colours(), CarKeys.colour(search.getColour()))) {
+            return Collections.emptyList();
+        }
+        CarSearch.Sort sort = search.sort();
+        boolean descending = search.isDescending();
+        Specification<Car> specification = CarSpecifications.matching(search);
+        if (after != null) {
+            specification = specification.and(CarSpecifications.after(sort, descending, after));
+        }
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Car> query = builder.createQuery(Car.class);
+        Root<Car> car = query.from(Car.class);
+        Predicate predicate = specification.toPredicate(car, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        List<Order> orders = new ArrayList<>(2);
+        if (sort != CarSearch.Sort.ID) {
+            orders.add(order(builder, car.get(sort.getAttribute()), descending));
+        }
+        orders.add(order(builder, car.get("id"), descending));
+        query.select(car).orderBy(orders);
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    private static Order order(CriteriaBuilder builder, Expression<?> expression, boolean descending)
+    {
+        return descending ? builder.desc(expression) : builder.asc(expression);
+    }
+
+    /**
+     * Gets the native filters by column, with brands and colours given by the ids of their keys,
+     * or null when a brand or colour key is not in the dictionary, so no car can match.
+     */
+    private Map<String, Object> filters(String brand, String colour, Integer productionYear)
+    {
+        String brandKey = CarKeys.brand(brand);
+        String colourKey = CarKeys.colour(colour);
+        if (unknown(dictionaries.brands(), brandKey) || unknown(dictionaries.colours(), colourKey)) {
+            return null;
+        }
+        Map<String, Object> filters = new LinkedHashMap<>();
+        putIfSet(filters, "brand_key_id", dictionaries.brands().find(brandKey));
+        putIfSet(filters, "colour_key_id", dictionaries.colours().find(colourKey));
+        putIfSet(filters, "production_year", productionYear);
+        return filters;
+    }
+
+    private static boolean unknown(CarDictionary dictionary, String name)
+    {
+        return name != null && dictionary.find(name) == null;
+    }
+
+    private static String where(Map<String, Object> filters)
+    {
+        StringBuilder where = new StringBuilder();
+        String separator = " where ";
+        for (String column : filters.keySet()) {
+            where.append(separator).append(column).append(" = :").append(column);
+            separator = " and ";
+        }
+        return where.toString();
+    }
+
+    private static void putIfSet(Map<String, Object> values, String field, Object value)
+    {
+        if (value != null) {
+            values.put(field, value);
+        }
+    }
+}
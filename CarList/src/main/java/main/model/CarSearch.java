@@ -0,0 +1,365 @@
+package main.model;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * The type Car search.
+ * <p>
+ * The criteria of a car search: every set filter must match. Production years are
+ * inclusive bounds, creation dates exclusive ones. Results are ordered by
+ * {@link #getSort()}, then id, in the {@link #getOrder()} direction.
+ */
+public class CarSearch
+{
+    /**
+     * The orders of search results, each an attribute followed by the id.
+     */
+    public enum Sort
+    {
+        /**
+         * By id.
+         */
+        ID("id"),
+        /**
+         * By production year, then id.
+         */
+        PRODUCTION_YEAR("productionYear"),
+        /**
+         * By creation date, then id.
+         */
+        CREATION_DATE("creationDate");
+
+        private final String attribute;
+
+        Sort(String attribute)
+        {
+            this.attribute = attribute;
+        }
+
+        /**
+         * Gets the sort of an attribute.
+         *
+         * @param attribute the attribute name
+         * @return the sort
+         * @throws IllegalArgumentException if the attribute is not sortable
+         */
+        public static Sort of(String attribute)
+        {
+            for (Sort sort : values()) {
+                if (sort.attribute.equals(attribute)) {
+                    return sort;
+                }
+            }
+            throw new IllegalArgumentException("not a sortable attribute: " + attribute);
+        }
+
+        /**
+         * Gets attribute.
+         *
+         * @return the attribute name
+         */
+        public String getAttribute()
+        {
+            return attribute;
+        }
+
+        /**
+         * Gets the number of keys of a position in this order.
+         *
+         * @return the key count
+         */
+        public int keyCount()
+        {
+            return this == ID ? 1 : 2;
+        }
+
+        /**
+         * Gets the keys of the position of a car in this order: the attribute, with
+         * creation dates in microseconds since the epoch, then the id.
+         *
+         * @param car the car
+         * @return the keys
+         */
+        public long[] keysOf(Car car)
+        {
+            switch (this) {
+                case PRODUCTION_YEAR:
+                    return new long[]{car.getProductionYear(), car.getId()};
+                case CREATION_DATE:
+                    return new long[]{micros(car.getCreationDate()), car.getId()};
+                default:
+                    return new long[]{car.getId()};
+            }
+        }
+
+        /**
+         * Gets the value of the attribute for a key.
+         *
+         * @param key the key
+         * @return the attribute value
+         */
+        public Object valueOf(long key)
+        {
+            switch (this) {
+                case PRODUCTION_YEAR:
+                    return Math.toIntExact(key);
+                case CREATION_DATE:
+                    Timestamp timestamp = new Timestamp(Math.floorDiv(key, 1_000_000L) * 1000);
+                    timestamp.setNanos((int) Math.floorMod(key, 1_000_000L) * 1000);
+                    return timestamp;
+                default:
+                    return Math.toIntExact(key);
+            }
+        }
+
+        private static long micros(Timestamp timestamp)
+        {
+            return Math.floorDiv(timestamp.getTime(), 1000L) * 1_000_000L + timestamp.getNanos() / 1000;
+        }
+    }
+
+    private String brand;
+
+    private String model;
+
+    private String colour;
+
+    private BodyType bodyType;
+
+    private Integer minProductionYear;
+
+    private Integer maxProductionYear;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdAfter;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdBefore;
+
+    private String sort = "id";
+
+    private String order = "asc";
+
+    /**
+     * Checks that the sort attribute and the order are known, before the search is run.
+     *
+     * @throws IllegalArgumentException if the sort attribute is not sortable or the order is neither asc nor desc
+     */
+    public void validate()
+    {
+        sort();
+        isDescending();
+    }
+
+    /**
+     * Gets the sort.
+     *
+     * @return the sort
+     * @throws IllegalArgumentException if the sort attribute is not sortable
+     */
+    public Sort sort()
+    {
+        return Sort.of(sort);
+    }
+
+    /**
+     * Whether results are in descending order.
+     *
+     * @return the boolean
+     * @throws IllegalArgumentException if the order is neither asc nor desc
+     */
+    public boolean isDescending()
+    {
+        switch (order) {
+            case "asc":
+                return false;
+            case "desc":
+                return true;
+            default:
+                throw new IllegalArgumentException("not an order: " + order);
+        }
+    }
+
+    /**
+     * Gets brand.
+     *
+     * @return the brand
+     */
+    public String getBrand() {
+        return brand;
+    }
+
+    /**
+     * Sets brand.
+     *
+     * @param brand the brand
+     */
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+
+    /**
+     * Gets model.
+     *
+     * @return the model
+     */
+    public String getModel() {
+        return model;
+    }
+
+    /**
+     * Sets model.
+     *
+     * @param model the model
+     */
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    /**
+     * Gets colour.
+     *
+     * @return the colour
+     */
+    public String getColour() {
+        return colour;
+    }
+
+    /**
+     * Sets colour.
+     *
+     * @param colour the colour
+     */
+    public void setColour(String colour) {
+        this.colour = colour;
+    }
+
+    /**
+     * Gets body type.
+     *
+     * @return the body type
+     */
+    public BodyType getBodyType() {
+        return bodyType;
+    }
+
+    /**
+     * Sets body type.
+     *
+     * @param bodyType the body type
+     */
+    public void setBodyType(BodyType bodyType) {
+        this.bodyType = bodyType;
+    }
+
+    /**
+     * Gets min production year.
+     *
+     * @return the min production year
+     */
+    public Integer getMinProductionYear() {
+        return minProductionYear;
+    }
+
+    /**
+     * Sets min production year.
+     *
+     * @param minProductionYear the min production year
+     */
+    public void setMinProductionYear(Integer minProductionYear) {
+        this.minProductionYear = minProductionYear;
+    }
+
+    /**
+     * Gets max production year.
+     *
+     * @return the max production year
+     */
+    public Integer getMaxProductionYear() {
+        return maxProductionYear;
+    }
+
+    /**
+     * Sets max production year.
+     *
+     * @param maxProductionYear the max production year
+     */
+    public void setMaxProductionYear(Integer maxProductionYear) {
+        this.maxProductionYear = maxProductionYear;
+    }
+
+    /**
+     * Gets created after.
+     *
+     * @return the created after
+     */
+    public LocalDateTime getCreatedAfter() {
+        return createdAfter;
+    }
+
+    /**
+     * Sets created after.
+     *
+     * @param createdAfter the created after
+     */
+    public void setCreatedAfter(LocalDateTime createdAfter) {
+        this.createdAfter = createdAfter;
+    }
+
+    /**
+     * Gets created before.
+     *
+     * @return the created before
+     */
+    public LocalDateTime getCreatedBefore() {
+        return createdBefore;
+    }
+
+    /**
+     * Sets created before.
+     *
+     * @param createdBefore the created before
+     */
+    public void setCreatedBefore(LocalDateTime createdBefore) {
+        this.createdBefore = createdBefore;
+    }
+
+    /**
+     * Gets sort.
+     *
+     * @return the sort attribute
+     */
+    public String getSort() {
+        return sort;
+    }
+
+    /**
+     * Sets sort.
+     *
+     * @param sort the sort attribute
+     */
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+
+    /**
+     * Gets order.
+     *
+     * @return the order, asc or desc
+     */
+    public String getOrder() {
+        return order;
+    }
+
+    /**
+     * Sets order.
+     *
+     * @param order the order, asc or desc
+     */
+    public void setOrder(String order) {
+        this.order = order;
+    }
+}
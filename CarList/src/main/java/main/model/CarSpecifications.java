@@ -0,0 +1,96 @@
+package main.model;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Specifications of cars, composed into the WHERE clause of a {@link CarSearch}.
+ * <p>
+ * Each unset criterion adds nothing to the query, so the database only sees the
+ * filters actually given and can pick the index matching them.
+ */
+public final class CarSpecifications
+{
+    private CarSpecifications() {}
+
+    /**
+     * Cars matching every set criterion of the search, brands and colours compared by their
+     * {@link CarKeys}.
+     *
+     * @param search the search
+     * @return the specification
+     */
+    public static Specification<Car> matching(CarSearch search)
+    {
+        return Specification.where(equalTo("brandKey", CarKeys.brand(search.getBrand())))
+                .and(equalTo("model", search.getModel()))
+                .and(equalTo("colourKey", CarKeys.colour(search.getColour())))
+                .and(equalTo("bodyType", search.getBodyType()))
+                .and(producedFrom(search.getMinProductionYear()))
+                .and(producedUntil(search.getMaxProductionYear()))
+                .and(createdAfter(search.getCreatedAfter()))
+                .and(createdBefore(search.getCreatedBefore()));
+    }
+
+    /**
+     * Cars following a position in a sort order, compared on the sorted attribute then the id.
+     * <p>
+     * Also bounds the attribute alone, so the database can start a range scan of the
+     * attribute index at the position.
+     *
+     * @param sort       the sort
+     * @param descending whether the order is descending
+     * @param keys       the keys of the position, as built by {@link CarSearch.Sort#keysOf(Car)}
+     * @return the specification
+     */
+    public static Specification<Car> after(CarSearch.Sort sort, boolean descending, long[] keys)
+    {
+        return (car, query, builder) -> {
+            Path<Integer> id = car.get("id");
+            int lastId = Math.toIntExact(keys[keys.length - 1]);
+            if (sort == CarSearch.Sort.ID) {
+                return descending ? builder.lessThan(id, lastId) : builder.greaterThan(id, lastId);
+            }
+            Path<Comparable<Object>> attribute = car.get(sort.getAttribute());
+            @SuppressWarnings("unchecked")
+            Comparable<Object> value = (Comparable<Object>) sort.valueOf(keys[0]);
+            return descending
+                    ? builder.and(builder.lessThanOrEqualTo(attribute, value),
+                            builder.or(builder.lessThan(attribute, value), builder.lessThan(id, lastId)))
+                    : builder.and(builder.greaterThanOrEqualTo(attribute, value),
+                            builder.or(builder.greaterThan(attribute, value), builder.greaterThan(id, lastId)));
+        };
+    }
+
+    private static Specification<Car> equalTo(String attribute, Object value)
+    {
+        return value == null ? null : (car, query, builder) -> builder.equal(car.get(attribute), value);
+    }
+
+    private static Specification<Car> producedFrom(Integer year)
+    {
+        return year == null ? null
+                : (car, query, builder) -> builder.greaterThanOrEqualTo(car.get("productionYear"), year);
+    }
+
+    private static Specification<Car> producedUntil(Integer year)
+    {
+        return year == null ? null
+                : (car, query, builder) -> builder.lessThanOrEqualTo(car.get("productionYear"), year);
+    }
+
+    private static Specification<Car> createdAfter(LocalDateTime date)
+    {
+        return date == null ? null
+                : (car, query, builder) -> builder.greaterThan(car.get("creationDate"), Timestamp.valueOf(date));
+    }
+
+    private static Specification<Car> createdBefore(LocalDateTime date)
+    {
+        return date == null ? null
+                : (car, query, builder) -> builder.lessThan(car.get("creationDate"), Timestamp.valueOf(date));
+    }
+}
@@ -0,0 +1,137 @@
+package main.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The type Car stats.
+ * <p>
+ * Numbers of cars by brand, colour, body type and production year bucket. Brands and
+ * colours are given by their {@link CarKeys}. Brands, colours and body types are ordered
+ * by decreasing count, buckets by year. Cars without a body type are counted in the
+ * total only.
+ */
+public class CarStats
+{
+    private final int yearBucket;
+
+    private long total;
+
+    private final Map<String, Long> brands = new LinkedHashMap<>();
+
+    private final Map<String, Long> colours = new LinkedHashMap<>();
+
+    private final Map<String, Long> bodyTypes = new LinkedHashMap<>();
+
+    private final Map<Integer, Long> productionYears = new TreeMap<>();
+
+    /**
+     * Instantiates a new Car stats.
+     *
+     * @param yearBucket the width of the production year buckets
+     */
+    public CarStats(int yearBucket)
+    {
+        this.yearBucket = yearBucket;
+    }
+
+    /**
+     * Counts cars of a brand.
+     *
+     * @param brand the brand
+     * @param count the number of cars
+     */
+    public void addBrand(String brand, long count)
+    {
+        brands.put(brand, count);
+    }
+
+    /**
+     * Counts cars of a colour.
+     *
+     * @param colour the colour
+     * @param count  the number of cars
+     */
+    public void addColour(String colour, long count)
+    {
+        colours.put(colour, count);
+    }
+
+    /**
+     * Counts cars of a body type.
+     *
+     * @param bodyType the body type
+     * @param count    the number of cars
+     */
+    public void addBodyType(String bodyType, long count)
+    {
+        bodyTypes.put(bodyType, count);
+    }
+
+    /**
+     * Counts cars of a production year bucket, adding them to the total.
+     *
+     * @param firstYear the first year of the bucket
+     * @param count     the number of cars
+     */
+    public void addProductionYears(int firstYear, long count)
+    {
+        productionYears.put(firstYear, count);
+        total += count;
+    }
+
+    /**
+     * Gets year bucket.
+     *
+     * @return the width of the production year buckets
+     */
+    public int getYearBucket() {
+        return yearBucket;
+    }
+
+    /**
+     * Gets total.
+     *
+     * @return the total
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets brands.
+     *
+     * @return the counts by brand
+     */
+    public Map<String, Long> getBrands() {
+        return brands;
+    }
+
+    /**
+     * Gets colours.
+     *
+     * @return the counts by colour
+     */
+    public Map<String, Long> getColours() {
+        return colours;
+    }
+
+    /**
+     * Gets body types.
+     *
+     * @return the counts by body type
+     */
+    public Map<String, Long> getBodyTypes() {
+        return bodyTypes;
+    }
+
+    /**
+     * Gets production years.
+     *
+     * @return the counts by first year of the bucket
+     */
+    public Map<Integer, Long> getProductionYears() {
+        return productionYears;
+    }
+}
@@ -0,0 +1,143 @@
+package main.model;
+
+/**
+ * The type Car update.
+ * <p>
+ * A partial update of a {@link Car}: only the fields that are set are written.
+ */
+public class CarUpdate
+{
+    private String licenseNumber;
+
+    private String brand;
+
+    private String model;
+
+    private String colour;
+
+    private Integer productionYear;
+
+    private BodyType bodyType;
+
+    /**
+     * Whether no field is set.
+     *
+     * @return the boolean
+     */
+    public boolean isEmpty() {
+        return licenseNumber == null
+                && brand == null
+                && model == null
+                && colour == null
+                && productionYear == null
+                && bodyType == null;
+    }
+
+    /**
+     * Gets license number.
+     *
+     * @return the license number
+     */
+    public String getLicenseNumber() {
+        return licenseNumber;
+    }
+
+    /**
+     * Sets license number.
+     *
+     * @param licenseNumber the license number
+     */
+    public void setLicenseNumber(String licenseNumber) {
+        this.licenseNumber = licenseNumber;
+    }
+
+    /**
+     * Gets brand.
+     *
+     * @return the brand
+     */
+    public String getBrand() {
+        return brand;
+    }
+
+    /**
+     * Sets brand.
+     *
+     * @param brand the brand
+     */
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+
+    /**
+     * Gets model.
+     *
+     * @return the model
+     */
+    public String getModel() {
+        return model;
+    }
+
+    /**
+     * Sets model.
+     *
+     * @param model the model
+     */
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    /**
+     * Gets colour.
+     *
+     * @return the colour
+     */
+    public String getColour() {
+        return colour;
+    }
+
+    /**
+     * Sets colour.
+     *
+     * @param colour the colour
+     */
+    public void setColour(String colour) {
+        this.colour = colour;
+    }
+
+    /**
+     * Gets production year.
+     *
+     * @return the production year
+     */
+    public Integer getProductionYear() {
+        return productionYear;
+    }
+
+    /**
+     * Sets production year.
+     *
+     * @param productionYear the production year
+     */
+    public void setProductionYear(Integer productionYear) {
+        this.productionYear = productionYear;
+    }
+
+    /**
+     * Gets body type.
+     *
+     * @return the body type
+     */
+    public BodyType getBodyType() {
+        return bodyType;
+    }
+
+    /**
+     * Sets body type.
+     *
+     * @param bodyType the body type
+     */
+    public void setBodyType(BodyType bodyType) {
+        this.bodyType = bodyType;
+    }
+}
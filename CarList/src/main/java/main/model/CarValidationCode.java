@@ -0,0 +1,21 @@
+package main.model;
+
+/**
+ * Enum, as storage for possible results of car validation.
+ *
+ * @see CarValidator
+ */
+public enum CarValidationCode
+{
+    VALID,
+    LICENSE_NUMBER_MISSING,
+    LICENSE_NUMBER_LENGTH,
+    LICENSE_NUMBER_LETTER,
+    LICENSE_NUMBER_DIGIT,
+    LICENSE_NUMBER_ZERO_NUMBER,
+    BRAND_EMPTY,
+    MODEL_EMPTY,
+    COLOUR_EMPTY,
+    PRODUCTION_YEAR_TOO_EARLY,
+    PRODUCTION_YEAR_IN_FUTURE
+}
@@ -0,0 +1,192 @@
+package main.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Validator of {@link Car} fields.
+ * <p>
+ * License numbers follow the Russian plate format: a letter, three digits other
+ * than 000, two letters and a two or three digit region, letters being the twelve
+ * Cyrillic ones that look like Latin letters, in either case. The format is checked
+ * by a hand-written state machine over the characters, without regex or allocation.
+ * The current year is cached until the year ends.
+ */
+public final class CarValidator
+{
+    /**
+     * The earliest valid production year.
+     */
+    public static final int FIRST_PRODUCTION_YEAR = 1885;
+
+    private static volatile YearWindow yearWindow = YearWindow.of(System.currentTimeMillis());
+
+    private CarValidator() {}
+
+    /**
+     * Validates the car.
+     *
+     * @param car the car
+     * @return {@link CarValidationCode#VALID} or the first failed check
+     */
+    public static CarValidationCode validate(Car car)
+    {
+        CarValidationCode licenseNumberCode = validateLicenseNumber(car.getLicenseNumber());
+        if (licenseNumberCode != CarValidationCode.VALID) {
+            return licenseNumberCode;
+        }
+        if (car.getBrand() == null || car.getBrand().isEmpty()) {
+            return CarValidationCode.BRAND_EMPTY;
+        }
+        if (car.getModel() == null || car.getModel().isEmpty()) {
+            return CarValidationCode.MODEL_EMPTY;
+        }
+        if (car.getColour() == null || car.getColour().isEmpty()) {
+            return CarValidationCode.COLOUR_EMPTY;
+        }
+        if (car.getProductionYear() < FIRST_PRODUCTION_YEAR) {
+            return CarValidationCode.PRODUCTION_YEAR_TOO_EARLY;
+        }
+        if (car.getProductionYear() > currentYear()) {
+            return CarValidationCode.PRODUCTION_YEAR_IN_FUTURE;
+        }
+        return CarValidationCode.VALID;
+    }
+
+    /**
+     * Validates the fields set by the update.
+     *
+     * @param update the update
+     * @return {@link CarValidationCode#VALID} or the first failed check
+     */
+    public static CarValidationCode validate(CarUpdate update)
+    {
+        if (update.getLicenseNumber() != null) {
+            CarValidationCode licenseNumberCode = validateLicenseNumber(update.getLicenseNumber());
+            if (licenseNumberCode != CarValidationCode.VALID) {
+                return licenseNumberCode;
+            }
+        }
+        if (update.getBrand() != null && update.getBrand().isEmpty()) {
+            return CarValidationCode.BRAND_EMPTY;
+        }
+        if (update.getModel() != null && update.getModel().isEmpty()) {
+            return CarValidationCode.MODEL_EMPTY;
+        }
+        if (update.getColour() != null && update.getColour().isEmpty()) {
+            return CarValidationCode.COLOUR_EMPTY;
+        }
+        if (update.getProductionYear() != null && update.getProductionYear() < FIRST_PRODUCTION_YEAR) {
+            return CarValidationCode.PRODUCTION_YEAR_TOO_EARLY;
+        }
+        if (update.getProductionYear() != null && update.getProductionYear() > currentYear()) {
+            return CarValidationCode.PRODUCTION_YEAR_IN_FUTURE;
+        }
+        return CarValidationCode.VALID;
+    }
+
+    /**
+     * Validates the license number.
+     *
+     * @param licenseNumber the license number
+     * @return {@link CarValidationCode#VALID} or the first failed check
+     */
+    public static CarValidationCode validateLicenseNumber(CharSequence licenseNumber)
+    {
+        if (licenseNumber == null) {
+            return CarValidationCode.LICENSE_NUMBER_MISSING;
+        }
+        int length = licenseNumber.length();
+        if (length != 8 && length != 9) {
+            return CarValidationCode.LICENSE_NUMBER_LENGTH;
+        }
+        boolean zeroNumber = true;
+        for (int i = 0; i < length; i++) {
+            char c = licenseNumber.charAt(i);
+            switch (i) {
+                case 0:
+                case 4:
+                case 5:
+                    if (!isLetter(c)) {
+                        return CarValidationCode.LICENSE_NUMBER_LETTER;
+                    }
+                    break;
+                case 1:
+                case 2:
+                case 3:
+                    if (!isDigit(c)) {
+                        return CarValidationCode.LICENSE_NUMBER_DIGIT;
+                    }
+                    zeroNumber &= c == '0';
+                    if (i == 3 && zeroNumber) {
+                        return CarValidationCode.LICENSE_NUMBER_ZERO_NUMBER;
+                    }
+                    break;
+                default:
+                    if (!isDigit(c)) {
+                        return CarValidationCode.LICENSE_NUMBER_DIGIT;
+                    }
+            }
+        }
+        return CarValidationCode.VALID;
+    }
+
+    /**
+     * Gets the current year in the default time zone.
+     *
+     * @return the current year
+     */
+    public static int currentYear()
+    {
+        long now = System.currentTimeMillis();
+        YearWindow window = yearWindow;
+        if (now >= window.endMillis) {
+            window = YearWindow.of(now);
+            yearWindow = window;
+        }
+        return window.year;
+    }
+
+    private static boolean isDigit(char c)
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c)
+    {
+        switch (c) {
+            case 'А': case 'В': case 'Е': case 'К': case 'М': case 'Н':
+            case 'О': case 'Р': case 'С': case 'Т': case 'У': case 'Х':
+            case 'а': case 'в': case 'е': case 'к': case 'м': case 'н':
+            case 'о': case 'р': case 'с': case 'т': case 'у': case 'х':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * A year and the moment it ends.
+     */
+    private static final class YearWindow
+    {
+        private final int year;
+
+        private final long endMillis;
+
+        private YearWindow(int year, long endMillis)
+        {
+            this.year = year;
+            this.endMillis = endMillis;
+        }
+
+        private static YearWindow of(long millis)
+        {
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDate today = Instant.ofEpochMilli(millis).atZone(zone).toLocalDate();
+            long endMillis = LocalDate.of(today.getYear() + 1, 1, 1).atStartOfDay(zone).toInstant().toEpochMilli();
+            return new YearWindow(today.getYear(), endMillis);
+        }
+    }
+}
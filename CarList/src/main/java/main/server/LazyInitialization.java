@@ -0,0 +1,65 @@
+package main.server;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.event.ApplicationPreparedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * Creates the beans on first use instead of at startup, when
+ * {@code cars.startup.lazy-initialization} is true, as {@code spring.main.lazy-initialization}
+ * does from Spring Boot 2.2 on.
+ * <p>
+ * Registered in META-INF/spring.factories, so it can change the bean definitions before
+ * the singletons are created. Beans declared with {@code @Lazy(false)} are still created at
+ * startup: those registering themselves somewhere rather than being injected, and those
+ * every request needs anyway, whose creation would otherwise delay the first response.
+ */
+public class LazyInitialization implements ApplicationListener<ApplicationPreparedEvent>
+{
+    /**
+     * The property enabling lazy initialization.
+     */
+    public static final String PROPERTY = "cars.startup.lazy-initialization";
+
+    @Override
+    public void onApplicationEvent(ApplicationPreparedEvent event)
+    {
+        if (event.getApplicationContext().getEnvironment().getProperty(PROPERTY, Boolean.class, false)) {
+            event.getApplicationContext().addBeanFactoryPostProcessor(new LazyBeans());
+        }
+    }
+
+    /**
+     * Marks every bean definition lazy, except those declared {@code @Lazy(false)}.
+     */
+    static final class LazyBeans implements BeanFactoryPostProcessor
+    {
+        @Override
+        public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory)
+        {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (!isDeclaredEager(definition)) {
+                    definition.setLazyInit(true);
+                }
+            }
+        }
+
+        private static boolean isDeclaredEager(BeanDefinition definition)
+        {
+            if (!(definition instanceof AnnotatedBeanDefinition)) {
+                return false;
+            }
+            AnnotatedTypeMetadata factoryMethod = ((AnnotatedBeanDefinition) definition).getFactoryMethodMetadata();
+            AnnotatedTypeMetadata declaration = factoryMethod != null ? factoryMethod
+                    : ((AnnotatedBeanDefinition) definition).getMetadata();
+            return declaration.isAnnotated(Lazy.class.getName())
+                    && Boolean.FALSE.equals(declaration.getAnnotationAttributes(Lazy.class.getName()).get("value"));
+        }
+    }
+}
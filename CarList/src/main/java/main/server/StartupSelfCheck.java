@@ -0,0 +1,167 @@
+package main.server;
+
+import com.mysql.cj.conf.PropertyKey;
+import com.mysql.cj.conf.PropertySet;
+import com.mysql.cj.jdbc.JdbcConnection;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Logs the database settings in effect once the application is ready: the connection pool,
+ * the statement caching of the MySQL driver as the driver applied it, the Hibernate batching
+ * and query plan settings and the schema version.
+ * <p>
+ * Settings costing throughput in production, such as uncached prepared statements, unbatched
+ * inserts or a schema recreated on start, are logged as warnings. The check never stops the
+ * application. It opens a connection once ready, and is left out with
+ * {@code cars.startup.self-check} false.
+ */
+@Component
+@ConditionalOnProperty(name = "cars.startup.self-check", havingValue = "true", matchIfMissing = true)
+public class StartupSelfCheck
+{
+    /**
+     * The constant LOGGER.
+     */
+    public static final Logger LOGGER = LoggerFactory.getLogger(StartupSelfCheck.class);
+
+    private static final String[] HIBERNATE_SETTINGS = {
+            "hibernate.jdbc.batch_size",
+            "hibernate.order_inserts",
+            "hibernate.order_updates",
+            "hibernate.query.plan_cache_max_size",
+            "hibernate.query.plan_parameter_metadata_max_size",
+            "hibernate.query.in_clause_parameter_padding",
+            "hibernate.hbm2ddl.auto"
+    };
+
+    private static final PropertyKey[] DRIVER_SETTINGS = {
+            PropertyKey.cachePrepStmts,
+            PropertyKey.useServerPrepStmts,
+            PropertyKey.prepStmtCacheSize,
+            PropertyKey.prepStmtCacheSqlLimit,
+            PropertyKey.rewriteBatchedStatements,
+            PropertyKey.useCursorFetch
+    };
+
+    private final DataSource dataSource;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ObjectProvider<Flyway> flyway;
+
+    /**
+     * Instantiates a new Startup self check.
+     *
+     * @param dataSource           the data source
+     * @param entityManagerFactory the entity manager factory
+     * @param flyway               the flyway migrations, if enabled
+     */
+    public StartupSelfCheck(DataSource dataSource,
+                            EntityManagerFactory entityManagerFactory,
+                            ObjectProvider<Flyway> flyway)
+    {
+        this.dataSource = dataSource;
+        this.entityManagerFactory = entityManagerFactory;
+        this.flyway = flyway;
+    }
+
+    /**
+     * Logs the settings.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void check()
+    {
+        try {
+            checkPool();
+            checkDriver();
+            checkHibernate();
+            checkSchema();
+        }
+        catch (Exception e) {
+            LOGGER.error("selfCheck:failed, {}", e.toString());
+        }
+    }
+
+    private void checkPool() throws SQLException
+    {
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+            LOGGER.info("selfCheck:pool, type:{}", dataSource.getClass().getName());
+            return;
+        }
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+        LOGGER.info("selfCheck:pool, name:{}, maximumPoolSize:{}, minimumIdle:{}, connectionTimeout:{}ms",
+                pool.getPoolName(), pool.getMaximumPoolSize(), pool.getMinimumIdle(), pool.getConnectionTimeout());
+    }
+
+    private void checkDriver() throws SQLException
+    {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            LOGGER.info("selfCheck:driver, database:{} {}, driver:{} {}",
+                    metaData.getDatabaseProductName(), metaData.getDatabaseProductVersion(),
+                    metaData.getDriverName(), metaData.getDriverVersion());
+            if (!connection.isWrapperFor(JdbcConnection.class)) {
+                return;
+            }
+            PropertySet properties = connection.unwrap(JdbcConnection.class).getPropertySet();
+            StringJoiner settings = new StringJoiner(", ");
+            for (PropertyKey key : DRIVER_SETTINGS) {
+                settings.add(key.getKeyName() + ":" + properties.getProperty(key).getValue());
+            }
+            LOGGER.info("selfCheck:driver, {}", settings);
+            if (!properties.getBooleanProperty(PropertyKey.cachePrepStmts).getValue()) {
+                LOGGER.warn("selfCheck:failed, prepared statements are not cached, set cachePrepStmts");
+            }
+            if (!properties.getBooleanProperty(PropertyKey.rewriteBatchedStatements).getValue()) {
+                LOGGER.warn("selfCheck:failed, batches are sent statement by statement, set rewriteBatchedStatements");
+            }
+        }
+    }
+
+    private void checkHibernate()
+    {
+        Map<String, Object> properties = entityManagerFactory.getProperties();
+        StringJoiner settings = new StringJoiner(", ");
+        for (String key : HIBERNATE_SETTINGS) {
+            settings.add(key.substring("hibernate.".length()) + ":" + properties.getOrDefault(key, "default"));
+        }
+        LOGGER.info("selfCheck:hibernate, {}", settings);
+        Object batchSize = properties.get("hibernate.jdbc.batch_size");
+        if (batchSize == null || Integer.parseInt(batchSize.toString()) < 2) {
+            LOGGER.warn("selfCheck:failed, inserts are not batched, set hibernate.jdbc.batch_size");
+        }
+        Object ddlAuto = properties.get("hibernate.hbm2ddl.auto");
+        if ("create".equals(ddlAuto) || "create-drop".equals(ddlAuto)) {
+            LOGGER.warn("selfCheck:failed, the schema is recreated on every start, ddl-auto:{}", ddlAuto);
+        }
+    }
+
+    private void checkSchema()
+    {
+        Flyway migrations = flyway.getIfAvailable();
+        if (migrations == null) {
+            LOGGER.info("selfCheck:schema, not managed by migrations");
+            return;
+        }
+        MigrationInfo current = migrations.info().current();
+        LOGGER.info("selfCheck:schema, version:{}, pending migrations:{}",
+                current == null ? "none" : current.getVersion(), migrations.info().pending().length);
+    }
+}
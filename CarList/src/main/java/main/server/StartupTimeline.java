@@ -0,0 +1,136 @@
+package main.server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.*;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports the startup timeline: the time since the JVM started at each startup phase and
+ * when the first request was served, and the beans taking the longest to create.
+ * <p>
+ * Registered in META-INF/spring.factories, so it sees the phases before the application
+ * context exists. The time of a bean excludes the beans created for its dependencies. With
+ * {@code cars.startup.exit-when-ready} the application exits once ready, as the training
+ * run of a class-data sharing archive.
+ */
+public class StartupTimeline implements ApplicationListener<ApplicationEvent>
+{
+    /**
+     * The constant LOGGER.
+     */
+    public static final Logger LOGGER = LoggerFactory.getLogger(StartupTimeline.class);
+
+    private static final int SLOWEST_BEANS = 10;
+
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    private final Map<String, Long> beanNanos = new ConcurrentHashMap<>();
+
+    private volatile boolean firstRequestServed;
+
+    @Override
+    public void onApplicationEvent(ApplicationEvent event)
+    {
+        if (event instanceof ServletRequestHandledEvent) {
+            if (!firstRequestServed) {
+                firstRequestServed = true;
+                LOGGER.info("startup:first request, {}ms, {} {} in {}ms", uptime(),
+                        ((ServletRequestHandledEvent) event).getMethod(),
+                        ((ServletRequestHandledEvent) event).getRequestUrl(),
+                        ((ServletRequestHandledEvent) event).getProcessingTimeMillis());
+            }
+        }
+        else if (event instanceof ApplicationStartingEvent) {
+            phases.put("starting", uptime());
+        }
+        else if (event instanceof ApplicationEnvironmentPreparedEvent) {
+            phases.put("environment", uptime());
+        }
+        else if (event instanceof ApplicationPreparedEvent) {
+            phases.put("prepared", uptime());
+            ((ApplicationPreparedEvent) event).getApplicationContext().getBeanFactory()
+                    .addBeanPostProcessor(new BeanTimer());
+        }
+        else if (event instanceof WebServerInitializedEvent) {
+            phases.put("web server", uptime());
+        }
+        else if (event instanceof ApplicationStartedEvent) {
+            phases.put("started", uptime());
+        }
+        else if (event instanceof ApplicationReadyEvent) {
+            phases.put("ready", uptime());
+            report();
+            ConfigurableApplicationContext context = ((ApplicationReadyEvent) event).getApplicationContext();
+            if (context.getEnvironment().getProperty("cars.startup.exit-when-ready", Boolean.class, false)) {
+                LOGGER.info("startup:exit when ready");
+                System.exit(SpringApplication.exit(context));
+            }
+        }
+    }
+
+    private void report()
+    {
+        LOGGER.info("startup:timeline, {}", phases.entrySet().stream()
+                .map(phase -> phase.getKey() + ":" + phase.getValue() + "ms")
+                .collect(Collectors.joining(", ")));
+        LOGGER.info("startup:slowest beans, {}", beanNanos.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(SLOWEST_BEANS)
+                .map(bean -> bean.getKey() + ":" + bean.getValue() / 1_000_000 + "ms")
+                .collect(Collectors.joining(", ")));
+    }
+
+    private static long uptime()
+    {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    /**
+     * Times the creation of each bean, from instantiation to initialization, less the
+     * creation of the beans it depends on, which happens in between on the same thread.
+     */
+    private final class BeanTimer implements InstantiationAwareBeanPostProcessor
+    {
+        private final ThreadLocal<Deque<long[]>> creations = ThreadLocal.withInitial(ArrayDeque::new);
+
+        private final ThreadLocal<Deque<String>> names = ThreadLocal.withInitial(ArrayDeque::new);
+
+        @Override
+        public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName)
+        {
+            creations.get().push(new long[]{System.nanoTime(), 0});
+            names.get().push(beanName);
+            return null;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName)
+        {
+            Deque<String> started = names.get();
+            if (!beanName.equals(started.peek())) {
+                return bean;
+            }
+            started.pop();
+            long[] creation = creations.get().pop();
+            long nanos = System.nanoTime() - creation[0];
+            beanNanos.merge(beanName, nanos - creation[1], Long::sum);
+            long[] parent = creations.get().peek();
+            if (parent != null) {
+                parent[1] += nanos;
+            }
+            return bean;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package main.server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Serves requests on virtual threads instead of the Tomcat worker pool, when
+ * {@code cars.server.virtual-threads} is true.
+ * <p>
+ * Each request runs on its own virtual thread, which leaves its carrier thread while it
+ * waits for a pooled connection or a JDBC response. A burst of requests then queues on the
+ * connection pool instead of on {@code server.tomcat.max-threads} worker threads, and the
+ * number of requests in progress is only bounded by {@code server.tomcat.max-connections}.
+ * <p>
+ * Virtual threads need Java 21 while the build targets Java 11, so they are created
+ * through reflection and the application fails to start when the mode is enabled on an
+ * older runtime. On Java 21 a virtual thread blocked inside a synchronized block keeps its
+ * carrier, which the MySQL driver does around its socket reads: the carrier count,
+ * {@code -Djdk.virtualThreadScheduler.parallelism}, must then be at least the connection
+ * pool size for the pool to be used in full.
+ */
+@Component
+@ConditionalOnProperty(name = "cars.server.virtual-threads", havingValue = "true")
+public class VirtualThreadTomcatCustomizer implements WebServerFactoryCustomizer<TomcatServletWebServerFactory>,
+        DisposableBean
+{
+    /**
+     * The constant LOGGER.
+     */
+    public static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadTomcatCustomizer.class);
+
+    private final ExecutorService executor = newVirtualThreadPerTaskExecutor("http-virtual-");
+
+    @Override
+    public void customize(TomcatServletWebServerFactory factory)
+    {
+        factory.addConnectorCustomizers(connector -> connector.getProtocolHandler().setExecutor(executor));
+        LOGGER.info("customize:success, serving requests on virtual threads");
+    }
+
+    @Override
+    public void destroy()
+    {
+        executor.shutdown();
+    }
+
+    /**
+     * Creates an executor starting a new virtual thread for each task, calling
+     * {@code Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 0).factory())}.
+     *
+     * @param prefix the prefix of the thread names
+     * @return the executor
+     * @throws IllegalStateException if the runtime does not support virtual threads
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor(String prefix)
+    {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        }
+        catch (ClassNotFoundException | NoSuchMethodException e) {
+            throw new IllegalStateException("virtual threads need Java 21 or later, running on Java "
+                    + System.getProperty("java.version"), e);
+        }
+        catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("cannot create virtual threads", e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package main.server;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary encodings of the response bodies, chosen by the {@code Accept} header:
+ * {@code application/x-jackson-smile} and {@code application/cbor}, next to the default JSON.
+ * <p>
+ * Both are written by Jackson straight to the response stream, with the same object mapper
+ * settings as JSON but no charset parameter. Smile also refers back to the field names and
+ * to the short string values it has already written, so the brand, colour and body type of
+ * a list of cars are mostly written once per distinct value instead of once per car.
+ */
+@Configuration
+public class WireFormats
+{
+    /**
+     * Creates the Smile factory used for responses.
+     *
+     * @return the factory
+     */
+    public static SmileFactory smileFactory()
+    {
+        return new SmileFactory()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+    }
+
+    /**
+     * Smile converter.
+     *
+     * @param builder the object mapper builder of the application
+     * @return the converter
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder)
+    {
+        MappingJackson2SmileHttpMessageConverter converter =
+                new MappingJackson2SmileHttpMessageConverter(builder.factory(smileFactory()).build());
+        converter.setDefaultCharset(null);
+        return converter;
+    }
+
+    /**
+     * CBOR converter.
+     *
+     * @param builder the object mapper builder of the application
+     * @return the converter
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder)
+    {
+        MappingJackson2CborHttpMessageConverter converter =
+                new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+        converter.setDefaultCharset(null);
+        return converter;
+    }
+}
@@ -0,0 +1,156 @@
+package main.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a bulk load: row counts and the rejected rows.
+ * <p>
+ * Only the first {@code maxReportedFailures} rejected rows are listed,
+ * {@link #getFailed()} counts all of them.
+ */
+public class BulkLoadReport
+{
+    private final int maxReportedFailures;
+
+    private final List<Failure> failures = new ArrayList<>();
+
+    private long received;
+
+    private long inserted;
+
+    private long failed;
+
+    /**
+     * Instantiates a new Bulk load report.
+     *
+     * @param maxReportedFailures the maximum number of listed failures
+     */
+    public BulkLoadReport(int maxReportedFailures)
+    {
+        this.maxReportedFailures = maxReportedFailures;
+    }
+
+    /**
+     * Counts a received row.
+     */
+    public void received()
+    {
+        received++;
+    }
+
+    /**
+     * Counts inserted rows.
+     *
+     * @param rows the number of inserted rows
+     */
+    public void inserted(int rows)
+    {
+        inserted += rows;
+    }
+
+    /**
+     * Records a rejected row.
+     *
+     * @param line          the line number in the request body
+     * @param licenseNumber the license number, if it could be read
+     * @param reason        the reason
+     */
+    public void failed(long line, String licenseNumber, String reason)
+    {
+        failed++;
+        if (failures.size() < maxReportedFailures){
+            failures.add(new Failure(line, licenseNumber, reason));
+        }
+    }
+
+    /**
+     * Gets the number of received rows.
+     *
+     * @return the received rows
+     */
+    public long getReceived() {
+        return received;
+    }
+
+    /**
+     * Gets the number of inserted rows.
+     *
+     * @return the inserted rows
+     */
+    public long getInserted() {
+        return inserted;
+    }
+
+    /**
+     * Gets the number of rejected rows.
+     *
+     * @return the rejected rows
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Gets the listed rejected rows.
+     *
+     * @return the failures
+     */
+    public List<Failure> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    /**
+     * A rejected row.
+     */
+    public static class Failure
+    {
+        private final long line;
+
+        private final String licenseNumber;
+
+        private final String reason;
+
+        /**
+         * Instantiates a new Failure.
+         *
+         * @param line          the line number
+         * @param licenseNumber the license number
+         * @param reason        the reason
+         */
+        public Failure(long line, String licenseNumber, String reason)
+        {
+            this.line = line;
+            this.licenseNumber = licenseNumber;
+            this.reason = reason;
+        }
+
+        /**
+         * Gets line.
+         *
+         * @return the line
+         */
+        public long getLine() {
+            return line;
+        }
+
+        /**
+         * Gets license number.
+         *
+         * @return the license number
+         */
+        public String getLicenseNumber() {
+            return licenseNumber;
+        }
+
+        /**
+         * Gets reason.
+         *
+         * @return the reason
+         */
+        public String getReason() {
+            return reason;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package main.services;
+
+import main.model.Car;
+import main.model.CarChangeLog;
+import main.model.CarValidationCode;
+import main.model.CarValidator;
+import main.model.CarRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Loads cars in bulk from a line-oriented stream.
+ * <p>
+ * Rows are validated one by one and inserted in batches of {@code cars.bulk.batch-size},
+ * each batch in its own transaction. Rows with a license number that is repeated in
+ * the request or already registered are reported and skipped, the rest of the batch
+ * is still inserted.
+ */
+@Service
+public class CarBulkLoader
+{
+    /**
+     * The logger.
+     */
+    public static final Logger LOGGER = LoggerFactory.getLogger(CarBulkLoader.class);
+
+    private final CarRepository carRepository;
+
+    private final CarChangeLog carChangeLog;
+
+    private final CarSnapshot carSnapshot;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${cars.bulk.batch-size:500}")
+    private int batchSize;
+
+    @Value("${cars.bulk.max-reported-failures:1000}")
+    private int maxReportedFailures;
+
+    /**
+     * Instantiates a new Car bulk loader.
+     *
+     * @param carRepository the car repository
+     * @param carChangeLog  the change log, recording the inserts
+     * @param carSnapshot   the car snapshot, given the inserted cars
+     */
+    public CarBulkLoader(CarRepository carRepository,
+                         CarChangeLog carChangeLog,
+                         CarSnapshot carSnapshot)
+    {
+        this.carRepository = carRepository;
+        this.carChangeLog = carChangeLog;
+        this.carSnapshot = carSnapshot;
+    }
+
+    /**
+     * Reads, validates and inserts every row of the input.
+     *
+     * @param reader     the input, one row per line
+     * @param parser     the row parser, throwing a runtime exception on malformed rows
+     * @param skipHeader whether the first line is a header
+     * @return the report
+     * @throws IOException if the input fails
+     */
+    public BulkLoadReport load(BufferedReader reader, Function<String, Car> parser, boolean skipHeader)
+            throws IOException
+    {
+        BulkLoadReport report = new BulkLoadReport(maxReportedFailures);
+        List<Row> batch = new ArrayList<>(batchSize);
+        long lineNumber = 0;
+        String line;
+        if (skipHeader && reader.readLine() != null){
+            lineNumber++;
+        }
+        while ((line = reader.readLine()) != null){
+            lineNumber++;
+            if (line.trim().isEmpty()){
+                continue;
+            }
+            report.received();
+            Car car;
+            try {
+                car = parser.apply(line);
+            }
+            catch (RuntimeException e){
+                report.failed(lineNumber, null, "malformed row");
+                continue;
+            }
+            CarValidationCode code = CarValidator.validate(car);
+            if (code != CarValidationCode.VALID){
+                report.failed(lineNumber, car.getLicenseNumber(), code.name());
+                continue;
+            }
+            car.setId(0);
+            batch.add(new Row(lineNumber, car));
+            if (batch.size() == batchSize){
+                insert(batch, report);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()){
+            insert(batch, report);
+        }
+        return report;
+    }
+
+    /**
+     * Inserts one batch, skipping rows whose license number is taken. Falls back
+     * to row-by-row inserts when the batch still hits the unique constraint,
+     * e.g. because of a concurrent writer.
+     */
+    private void insert(List<Row> batch, BulkLoadReport report)
+    {
+        Set<String> licenseNumbers = new HashSet<>();
+        List<Row> unique = new ArrayList<>(batch.size());
+        for (Row row : batch){
+            if (licenseNumbers.add(row.car.getLicenseNumber())){
+                unique.add(row);
+            }
+            else {
+                report.failed(row.line, row.car.getLicenseNumber(), "duplicate licenseNumber in request");
+            }
+        }
+        Set<String> registered = new HashSet<>(carRepository.findExistingLicenseNumbers(licenseNumbers));
+        List<Car> cars = new ArrayList<>(unique.size());
+        List<Row> accepted = new ArrayList<>(unique.size());
+        for (Row row : unique){
+            if (registered.contains(row.car.getLicenseNumber())){
+                report.failed(row.line, row.car.getLicenseNumber(), "licenseNumber already registered");
+            }
+            else {
+                cars.add(row.car);
+                accepted.add(row);
+            }
+        }
+        if (cars.isEmpty()){
+            return;
+        }
+        try {
+            save(cars);
+            report.inserted(cars.size());
+        }
+        catch (RuntimeException e){
+            LOGGER.warn("bulkLoad:batch failed, retrying row by row, cause:{}", e.getCause());
+            for (Row row : accepted){
+                row.car.setId(0);
+                try {
+                    save(List.of(row.car));
+                    report.inserted(1);
+                }
+                catch (DataIntegrityViolationException ex){
+                    report.failed(row.line, row.car.getLicenseNumber(), "licenseNumber already registered");
+                }
+                catch (RuntimeException ex){
+                    report.failed(row.line, row.car.getLicenseNumber(), "insert failed");
+                }
+            }
+        }
+    }
+
+    /**
+     * Saves the cars in one transaction, together with their changes, and clears the
+     * persistence context afterwards so a long load keeps no entities around.
+     */
+    private void save(List<Car> cars)
+    {
+        try {
+            carChangeLog.insert(cars, () -> carRepository.saveAll(cars));
+            carSnapshot.put(cars);
+        }
+        finally {
+            entityManager.clear();
+        }
+    }
+
+    /**
+     * A parsed row and its line number.
+     */
+    private static class Row
+    {
+        private final long line;
+
+        private final Car car;
+
+        private Row(long line, Car car)
+        {
+            this.line = line;
+            this.car = car;
+        }
+    }
+}
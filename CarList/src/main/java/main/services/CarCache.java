@@ -0,0 +1,97 @@
+package main.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import main.model.Car;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of cars by id.
+ * <p>
+ * Backed by Caffeine (W-TinyLFU eviction), holding at most {@code cars.cache.maximum-size}
+ * cars for at most {@code cars.cache.ttl} after they were loaded. Missing ids are not cached.
+ * Every write to a car must invalidate it once committed. Statistics are published as the
+ * {@code cache.*} meters tagged {@code cache=cars}.
+ */
+@Component
+public class CarCache
+{
+    private final Cache<Integer, Car> cache;
+
+    /**
+     * Instantiates a new Car cache.
+     *
+     * @param maximumSize the maximum number of cached cars
+     * @param ttl         the time a car stays cached after it was loaded
+     * @param registry    the meter registry
+     */
+    public CarCache(@Value("${cars.cache.maximum-size:10000}") long maximumSize,
+                    @Value("${cars.cache.ttl:10m}") Duration ttl,
+                    MeterRegistry registry)
+    {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "cars");
+    }
+
+    /**
+     * Gets the car, loading it on a miss.
+     *
+     * @param id     the id
+     * @param loader the loader of missing cars
+     * @return the car
+     */
+    public Optional<Car> get(int id, Function<Integer, Optional<Car>> loader)
+    {
+        return Optional.ofNullable(cache.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    /**
+     * Invalidates the car.
+     *
+     * @param id the id
+     */
+    public void invalidate(int id)
+    {
+        cache.invalidate(id);
+    }
+
+    /**
+     * Invalidates every car.
+     */
+    public void invalidateAll()
+    {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Gets the hit, miss and eviction statistics.
+     *
+     * @return the statistics
+     */
+    public CacheStats stats()
+    {
+        return cache.stats();
+    }
+
+    /**
+     * Gets the approximate number of cached cars.
+     *
+     * @return the size
+     */
+    public long size()
+    {
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,224 @@
+package main.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import main.model.CarChange;
+import main.model.CarChangeLog;
+import main.model.CarChangeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Delivers the {@link CarChangeLog} to subscribers, in batches of at most
+ * {@code cars.changes.batch-size} changes.
+ * <p>
+ * A subscription receives one batch and ends, the subscriber subscribes again from the last
+ * position it received once it has consumed the batch: changes a slow subscriber has not
+ * read yet stay in the table rather than in memory. Waiting subscriptions are served by one
+ * thread, woken by the commits of this process and every {@code cars.changes.poll-interval}
+ * for those of other instances; subscriptions waiting at the same position share one query.
+ * Batches are handed to subscribers on a separate pool, so one blocked on a slow client
+ * does not delay the others. The pool has {@code cars.changes.delivery-threads} threads and
+ * queues up to {@code cars.changes.delivery-queue-size} batches: when both are taken, the
+ * subscription the batch was for is ended instead, and its subscriber subscribes again
+ * later. The number of waiting subscriptions is published as
+ * {@code cars.changes.subscribers}, the number of ended ones as {@code cars.changes.rejected}.
+ */
+@Service
+public class CarChangeFeed
+{
+    /**
+     * The logger.
+     */
+    public static final Logger LOGGER = LoggerFactory.getLogger(CarChangeFeed.class);
+
+    private final CarChangeRepository carChangeRepository;
+
+    private final int batchSize;
+
+    private final Set<Subscription> waiting = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean dispatchPending = new AtomicBoolean();
+
+    private final ScheduledExecutorService dispatcher =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("car-changes-"));
+
+    private final ThreadPoolExecutor deliveries;
+
+    private final Counter rejected;
+
+    /**
+     * Instantiates a new Car change feed.
+     *
+     * @param carChangeRepository the car change repository
+     * @param carChangeLog        the change log, notifying its commits
+     * @param batchSize           the maximum number of changes delivered at once
+     * @param pollInterval        the interval between two reads of changes committed elsewhere
+     * @param deliveryThreads     the maximum number of batches handed to subscribers at once
+     * @param deliveryQueueSize   the maximum number of batches waiting for a delivery thread
+     * @param registry            the meter registry
+     */
+    public CarChangeFeed(CarChangeRepository carChangeRepository,
+                         CarChangeLog carChangeLog,
+                         @Value("${cars.changes.batch-size:500}") int batchSize,
+                         @Value("${cars.changes.poll-interval:1s}") Duration pollInterval,
+                         @Value("${cars.changes.delivery-threads:64}") int deliveryThreads,
+                         @Value("${cars.changes.delivery-queue-size:256}") int deliveryQueueSize,
+                         MeterRegistry registry)
+    {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batch size must be positive: " + batchSize);
+        }
+        if (deliveryThreads < 1 || deliveryQueueSize < 1) {
+            throw new IllegalArgumentException("delivery threads and queue size must be positive: "
+                    + deliveryThreads + ", " + deliveryQueueSize);
+        }
+        this.carChangeRepository = carChangeRepository;
+        this.batchSize = batchSize;
+        this.deliveries = new ThreadPoolExecutor(deliveryThreads, deliveryThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(deliveryQueueSize), new CustomizableThreadFactory("car-changes-delivery-"));
+        this.deliveries.allowCoreThreadTimeOut(true);
+        Gauge.builder("cars.changes.subscribers", waiting, Set::size).register(registry);
+        this.rejected = registry.counter("cars.changes.rejected");
+        carChangeLog.onCommit(this::dispatchSoon);
+        dispatcher.scheduleWithFixedDelay(this::dispatch, pollInterval.toMillis(), pollInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Subscribes to the next batch of changes.
+     *
+     * @param after    the last position the subscriber has seen, 0 for the start of the log
+     * @param consumer the consumer of the batch, never empty, called once
+     * @param ended    called instead of the consumer when no delivery thread could take the
+     *                 batch, on the thread of the feed, so it must not block
+     * @return the subscription
+     */
+    public Subscription subscribe(long after, Consumer<List<CarChange>> consumer, Runnable ended)
+    {
+        Subscription subscription = new Subscription(after, consumer, ended);
+        waiting.add(subscription);
+        dispatchSoon();
+        return subscription;
+    }
+
+    /**
+     * Cancels a subscription, if still waiting.
+     *
+     * @param subscription the subscription
+     */
+    public void cancel(Subscription subscription)
+    {
+        waiting.remove(subscription);
+    }
+
+    private void dispatchSoon()
+    {
+        if (dispatchPending.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(this::dispatch);
+            }
+            catch (RejectedExecutionException e) {
+                LOGGER.debug("changeFeed:closed");
+            }
+        }
+    }
+
+    private void dispatch()
+    {
+        dispatchPending.set(false);
+        if (waiting.isEmpty()) {
+            return;
+        }
+        try {
+            Long last = carChangeRepository.findLastSeq();
+            if (last == null) {
+                return;
+            }
+            Map<Long, List<Subscription>> byPosition = new HashMap<>();
+            for (Subscription subscription : waiting) {
+                if (subscription.after < last) {
+                    byPosition.computeIfAbsent(subscription.after, after -> new ArrayList<>()).add(subscription);
+                }
+            }
+            for (Map.Entry<Long, List<Subscription>> position : byPosition.entrySet()) {
+                List<CarChange> changes = carChangeRepository.findBySeqGreaterThanOrderBySeqAsc(
+                        position.getKey(), PageRequest.of(0, batchSize));
+                if (changes.isEmpty()) {
+                    continue;
+                }
+                for (Subscription subscription : position.getValue()) {
+                    if (waiting.remove(subscription)) {
+                        deliver(subscription, changes);
+                    }
+                }
+            }
+        }
+        catch (RuntimeException e) {
+            LOGGER.error("changeFeed:failed, cause:{}", e.toString());
+        }
+    }
+
+    private void deliver(Subscription subscription, List<CarChange> changes)
+    {
+        try {
+            deliveries.execute(() -> subscription.consumer.accept(changes));
+        }
+        catch (RejectedExecutionException e) {
+            rejected.increment();
+            LOGGER.warn("changeFeed:delivery rejected, position:{}", subscription.after);
+            subscription.ended.run();
+        }
+    }
+
+    /**
+     * Stops the threads of the feed.
+     */
+    @PreDestroy
+    public void close()
+    {
+        dispatcher.shutdownNow();
+        deliveries.shutdownNow();
+    }
+
+    /**
+     * A subscriber waiting for the changes after a position.
+     */
+    public static final class Subscription
+    {
+        private final long after;
+
+        private final Consumer<List<CarChange>> consumer;
+
+        private final Runnable ended;
+
+        private Subscription(long after, Consumer<List<CarChange>> consumer, Runnable ended)
+        {
+            this.after = after;
+            this.consumer = consumer;
+            this.ended = ended;
+        }
+    }
+}
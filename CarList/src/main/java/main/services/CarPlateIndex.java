@@ -0,0 +1,455 @@
+package main.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import main.model.CarChange;
+import main.model.CarChangeRepository;
+import main.model.CarChangeType;
+import main.model.CarPlates;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of the license numbers, finding cars by the start of their number, by
+ * region, and by their number typed with one wrong, missing or extra character, when
+ * {@code cars.plates.enabled} is true.
+ * <p>
+ * Numbers are held as {@link CarPlates} codes in a Roaring bitmap, and in one bitmap per
+ * region: the numbers starting with a prefix are a range of codes, read from the first one
+ * in the range, and a number with a typo is looked up as each of the few hundred codes one
+ * edit away from it. Numbers not in the plate format are not indexed.
+ * <p>
+ * The table is read in the background once the application is ready, and read again
+ * every {@code cars.plates.load-retry-delay} until a read succeeds, so a database that is
+ * not reachable yet does not stop the application. The index then follows the
+ * {@link CarChangeFeed} from the position the log had before the read, so it sees the
+ * writes of every node, shortly after their commit. Until the table is read, queries are
+ * not answered. Reads share a read lock, changes take the write lock. The number of cars
+ * indexed is published as {@code cars.plates.size}.
+ */
+@Component
+public class CarPlateIndex
+{
+    /**
+     * The logger.
+     */
+    public static final Logger LOGGER = LoggerFactory.getLogger(CarPlateIndex.class);
+
+    private static final String SELECT = "select id, license_number from cars";
+
+    private static final int FETCH_SIZE = 1000;
+
+    /**
+     * Delay before a batch of changes that failed to apply is read again.
+     */
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final boolean enabled;
+
+    private final long loadRetryDelayMillis;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final CarChangeRepository carChangeRepository;
+
+    private final CarChangeFeed carChangeFeed;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile Plates plates;
+
+    private final ScheduledExecutorService loader;
+
+    /**
+     * Instantiates a new Car plate index.
+     *
+     * @param enabled             whether the table is read once the application is ready
+     * @param loadRetryDelay      the delay before a failed read of the table is tried again
+     * @param dataSource          the data source
+     * @param carChangeRepository the car change repository
+     * @param carChangeFeed       the car change feed, followed once the table is read
+     * @param registry            the meter registry
+     */
+    public CarPlateIndex(@Value("${cars.plates.enabled:true}") boolean enabled,
+                         @Value("${cars.plates.load-retry-delay:10s}") Duration loadRetryDelay,
+                         DataSource dataSource,
+                         CarChangeRepository carChangeRepository,
+                         CarChangeFeed carChangeFeed,
+                         MeterRegistry registry)
+    {
+        this.enabled = enabled;
+        this.loadRetryDelayMillis = loadRetryDelay.toMillis();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("car-plates-");
+        threadFactory.setDaemon(true);
+        this.loader = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.carChangeRepository = carChangeRepository;
+        this.carChangeFeed = carChangeFeed;
+        Gauge.builder("cars.plates.size", this, CarPlateIndex::size).register(registry);
+    }
+
+    /**
+     * Starts reading the table in the background once the application is ready, if enabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadWhenReady()
+    {
+        if (enabled) {
+            loader.execute(this::loadOrRetry);
+        }
+    }
+
+    /**
+     * Stops reading the table.
+     */
+    @PreDestroy
+    public void close()
+    {
+        loader.shutdownNow();
+    }
+
+    private void loadOrRetry()
+    {
+        try {
+            load();
+        }
+        catch (RuntimeException e) {
+            LOGGER.error("plateIndex:load failed, retry in {}ms, cause:{}", loadRetryDelayMillis, e.toString());
+            loader.schedule(this::loadOrRetry, loadRetryDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Reads, or reads again, the license numbers of the whole table, then follows the changes.
+     */
+    public void load()
+    {
+        long start = System.nanoTime();
+        Long last = carChangeRepository.findLastSeq();
+        Plates loaded = new Plates();
+        jdbcTemplate.query(SELECT, (RowCallbackHandler) row -> loaded.put(row.getInt(1), row.getString(2)));
+        long loadedGeneration = generation.incrementAndGet();
+        lock.writeLock().lock();
+        try {
+            plates = loaded;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+        follow(last == null ? 0 : last, loadedGeneration);
+        LOGGER.info("plateIndex:load success, cars:{} in {}ms", loaded.size,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Whether the table was read, so the index answers queries.
+     *
+     * @return true if loaded
+     */
+    public boolean isLoaded()
+    {
+        return plates != null;
+    }
+
+    /**
+     * Finds the cars whose license number starts with a prefix, in license number order.
+     *
+     * @param prefix the prefix, case-insensitive, empty for any
+     * @param region the region, or null for any
+     * @param limit  the maximum number of cars
+     * @return the cars
+     * @throws IllegalArgumentException if the region is not two or three digits
+     * @throws IllegalStateException    if the index is not loaded
+     */
+    public List<PlateMatch> findByPrefix(String prefix, String region, int limit)
+    {
+        int regionRank = regionRank(region);
+        int[] range = CarPlates.range(prefix);
+        if (range == null) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            return loaded().byPrefix(range, regionRank, limit);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the cars whose license number is at most one inserted, deleted or substituted
+     * character away from the given one, in license number order.
+     *
+     * @param licenseNumber the license number, case-insensitive
+     * @param region        the region, or null for any
+     * @param limit         the maximum number of cars
+     * @return the cars
+     * @throws IllegalArgumentException if the region is not two or three digits
+     * @throws IllegalStateException    if the index is not loaded
+     */
+    public List<PlateMatch> findNear(String licenseNumber, String region, int limit)
+    {
+        int regionRank = regionRank(region);
+        int[] codes = CarPlates.withinOneEdit(licenseNumber);
+        lock.readLock().lock();
+        try {
+            return loaded().near(codes, regionRank, limit);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Plates loaded()
+    {
+        Plates current = plates;
+        if (current == null) {
+            throw new IllegalStateException("plate index not loaded");
+        }
+        return current;
+    }
+
+    private static int regionRank(String region)
+    {
+        if (region == null) {
+            return -1;
+        }
+        int rank = CarPlates.region(region);
+        if (rank < 0) {
+            throw new IllegalArgumentException("not a region: " + region);
+        }
+        return rank;
+    }
+
+    private int size()
+    {
+        Plates current = plates;
+        return current == null ? 0 : current.size;
+    }
+
+    /**
+     * Subscribes to the changes after a position, then again after each batch applied,
+     * until the table is read again. A subscription the feed ends is made again after a delay.
+     */
+    private void follow(long after, long followedGeneration)
+    {
+        carChangeFeed.subscribe(after, changes -> {
+            if (generation.get() != followedGeneration) {
+                return;
+            }
+            long position = after;
+            try {
+                apply(changes);
+                position = changes.get(changes.size() - 1).getSeq();
+            }
+            catch (RuntimeException e) {
+                LOGGER.error("plateIndex:failed, position:{}, cause:{}", after, e.toString());
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                }
+                catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            follow(position, followedGeneration);
+        }, () -> loader.schedule(() -> follow(after, followedGeneration),
+                RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Reads the current license number of each car created or updated by the changes, and
+     * indexes it, or removes the car if it is gone.
+     */
+    private void apply(List<CarChange> changes)
+    {
+        Map<Integer, CarChangeType> latest = new LinkedHashMap<>();
+        for (CarChange change : changes) {
+            latest.put(change.getCarId(), change.getType());
+        }
+        List<Integer> written = new ArrayList<>(latest.size());
+        latest.forEach((id, type) -> {
+            if (type != CarChangeType.DELETED) {
+                written.add(id);
+            }
+        });
+        Map<Integer, String> licenseNumbers = new HashMap<>();
+        if (!written.isEmpty()) {
+            namedParameterJdbcTemplate.query("select id, license_number from cars where id in (:ids)",
+                    Collections.singletonMap("ids", written),
+                    (RowCallbackHandler) row -> licenseNumbers.put(row.getInt(1), row.getString(2)));
+        }
+        lock.writeLock().lock();
+        try {
+            Plates current = plates;
+            for (Integer id : latest.keySet()) {
+                String licenseNumber = licenseNumbers.get(id);
+                if (licenseNumber == null) {
+                    current.remove(id);
+                }
+                else {
+                    current.put(id, licenseNumber);
+                }
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The codes of the indexed license numbers and the cars having them. Cars with numbers
+     * differing only in case share a code: the first one is held by the code, the others
+     * are listed separately.
+     */
+    static final class Plates
+    {
+        private static final int NONE = RowIndex.NONE;
+
+        private final RoaringBitmap codes = new RoaringBitmap();
+
+        private final Map<Integer, RoaringBitmap> codesByRegion = new HashMap<>();
+
+        private final RowIndex codeById = new RowIndex();
+
+        private final RowIndex idByCode = new RowIndex();
+
+        private final Map<Integer, Set<Integer>> sharedCodes = new HashMap<>();
+
+        private int size;
+
+        /**
+         * Indexes, or indexes again, the license number of a car.
+         */
+        void put(int id, String licenseNumber)
+        {
+            remove(id);
+            int code = CarPlates.code(licenseNumber);
+            if (code < 0) {
+                return;
+            }
+            codeById.put(id, code);
+            size++;
+            if (idByCode.get(code) == NONE) {
+                idByCode.put(code, id);
+                codes.add(code);
+                codesByRegion.computeIfAbsent(CarPlates.regionOf(code), region -> new RoaringBitmap()).add(code);
+            }
+            else {
+                sharedCodes.computeIfAbsent(code, shared -> new TreeSet<>()).add(id);
+            }
+        }
+
+        /**
+         * Removes a car, if indexed.
+         */
+        void remove(int id)
+        {
+            int code = codeById.remove(id);
+            if (code == NONE) {
+                return;
+            }
+            size--;
+            Set<Integer> shared = sharedCodes.get(code);
+            if (idByCode.get(code) == id) {
+                if (shared == null) {
+                    idByCode.remove(code);
+                    codes.remove(code);
+                    codesByRegion.get(CarPlates.regionOf(code)).remove(code);
+                    return;
+                }
+                Integer next = shared.iterator().next();
+                idByCode.put(code, next);
+                shared.remove(next);
+            }
+            else if (shared != null) {
+                shared.remove(id);
+            }
+            if (shared != null && shared.isEmpty()) {
+                sharedCodes.remove(code);
+            }
+        }
+
+        /**
+         * Lists the cars of the codes of a range, in one region if not negative.
+         */
+        List<PlateMatch> byPrefix(int[] range, int region, int limit)
+        {
+            List<PlateMatch> matches = new ArrayList<>(Math.min(limit, 16));
+            RoaringBitmap bitmap = region < 0 ? codes : codesByRegion.get(region);
+            if (bitmap == null) {
+                return matches;
+            }
+            PeekableIntIterator iterator = bitmap.getIntIterator();
+            iterator.advanceIfNeeded(range[0]);
+            while (iterator.hasNext() && matches.size() < limit) {
+                int code = iterator.next();
+                if (code > range[1]) {
+                    break;
+                }
+                collect(code, matches, limit);
+            }
+            return matches;
+        }
+
+        /**
+         * Lists the cars of the given codes, in one region if not negative.
+         */
+        List<PlateMatch> near(int[] candidates, int region, int limit)
+        {
+            List<PlateMatch> matches = new ArrayList<>();
+            for (int code : candidates) {
+                if (matches.size() >= limit) {
+                    break;
+                }
+                if ((region < 0 || CarPlates.regionOf(code) == region) && codes.contains(code)) {
+                    collect(code, matches, limit);
+                }
+            }
+            return matches;
+        }
+
+        private void collect(int code, List<PlateMatch> matches, int limit)
+        {
+            String licenseNumber = CarPlates.plate(code);
+            matches.add(new PlateMatch(idByCode.get(code), licenseNumber));
+            Set<Integer> shared = sharedCodes.isEmpty() ? null : sharedCodes.get(code);
+            if (shared != null) {
+                for (Integer id : shared) {
+                    if (matches.size() >= limit) {
+                        break;
+                    }
+                    matches.add(new PlateMatch(id, licenseNumber));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,683 @@
+package main.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import main.model.BodyType;
+import main.model.Car;
+import main.model.CarDictionaries;
+import main.model.CarKeys;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-memory, column-oriented copy of the cars table answering the read-only queries by
+ * colour, brand, production year and creation date, and the count, without a database
+ * round-trip, when {@code cars.snapshot.enabled} is true.
+ * <p>
+ * Each column is a primitive array indexed by row, brands, models and colours being held
+ * as their {@link CarDictionaries} ids. Each brand key, colour key and production year has
+ * a Roaring bitmap of the ids of its cars, the years kept in order, so a query walks one
+ * bitmap, or the bitmaps of successive years, and only reads the rows it returns. The first
+ * and last created cars are tracked as rows are written.
+ * <p>
+ * The table is read once the application is ready; until then, and when disabled, the
+ * callers query the database. It is then kept up to date by the writes of this node:
+ * writes of other nodes are not seen, so the snapshot only fits a single writing node.
+ * Reads share a read lock, writes take the write lock. Rows are read from the database
+ * before the lock is taken, so writes of the same car may be applied out of order: a car is
+ * only replaced by a newer version, and a removed id is never added back, ids not being
+ * reused. The number of cars held is published as {@code cars.snapshot.size}.
+ */
+@Component
+public class CarSnapshot
+{
+    /**
+     * The logger.
+     */
+    public static final Logger LOGGER = LoggerFactory.getLogger(CarSnapshot.class);
+
+    private static final String SELECT = "select id, license_number, brand_id, brand_key_id, model_id, colour_id,"
+            + " colour_key_id, production_year, body_type, creation_date, version from cars";
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final RowMapper<Row> ROW_MAPPER = (row, i) -> {
+        String bodyType = row.getString(9);
+        return new Row(row.getInt(1), row.getString(2), row.getInt(3), row.getInt(4), row.getInt(5),
+                row.getInt(6), row.getInt(7), row.getInt(8), bodyType == null ? null : BodyType.valueOf(bodyType),
+                micros(row.getTimestamp(10)), row.getLong(11));
+    };
+
+    private final boolean enabled;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final CarDictionaries dictionaries;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile Columns columns;
+
+    /**
+     * Instantiates a new Car snapshot.
+     *
+     * @param enabled      whether the table is read once the application is ready
+     * @param dataSource   the data source
+     * @param dictionaries the dictionaries of brands, models and colours
+     * @param registry     the meter registry
+     */
+    public CarSnapshot(@Value("${cars.snapshot.enabled:false}") boolean enabled,
+                       DataSource dataSource,
+                       CarDictionaries dictionaries,
+                       MeterRegistry registry)
+    {
+        this.enabled = enabled;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.dictionaries = dictionaries;
+        Gauge.builder("cars.snapshot.size", this, CarSnapshot::size).register(registry);
+    }
+
+    /**
+     * Reads the table once the application is ready, if enabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadWhenReady()
+    {
+        if (enabled) {
+            load();
+        }
+    }
+
+    /**
+     * Reads, or reads again, the whole table. Writes wait for the end of the read, reads
+     * too when the table is read again.
+     */
+    public void load()
+    {
+        long start = System.nanoTime();
+        dictionaries.brands().loadAll();
+        dictionaries.models().loadAll();
+        dictionaries.colours().loadAll();
+        Columns loaded = new Columns();
+        lock.writeLock().lock();
+        try {
+            jdbcTemplate.query(SELECT, (RowCallbackHandler) row -> loaded.put(ROW_MAPPER.mapRow(row, 0)));
+            columns = loaded;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+        LOGGER.info("snapshot:load success, cars:{} in {}ms", loaded.size,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Whether the table was read, so the snapshot answers queries.
+     *
+     * @return true if loaded
+     */
+    public boolean isLoaded()
+    {
+        return columns != null;
+    }
+
+    /**
+     * Adds the cars, once their insert is committed, unless already updated or removed.
+     *
+     * @param cars the cars, with their ids
+     */
+    public void put(Collection<Car> cars)
+    {
+        if (!isMaintained()) {
+            return;
+        }
+        List<Row> rows = new ArrayList<>(cars.size());
+        for (Car car : cars) {
+            rows.add(new Row(car.getId(), car.getLicenseNumber(),
+                    dictionaries.brands().id(car.getBrand()), dictionaries.brands().id(car.getBrandKey()),
+                    dictionaries.models().id(car.getModel()),
+                    dictionaries.colours().id(car.getColour()), dictionaries.colours().id(car.getColourKey()),
+                    car.getProductionYear(), car.getBodyType(), micros(car.getCreationDate()), car.getVersion()));
+        }
+        write(current -> rows.forEach(current::put));
+    }
+
+    /**
+     * Reads the car again, once its update is committed.
+     *
+     * @param id the id
+     */
+    public void refresh(int id)
+    {
+        if (!isMaintained()) {
+            return;
+        }
+        List<Row> rows = jdbcTemplate.query(SELECT + " where id = ?", ROW_MAPPER, id);
+        write(current -> {
+            if (rows.isEmpty()) {
+                current.remove(id);
+            }
+            else {
+                current.put(rows.get(0));
+            }
+        });
+    }
+
+    /**
+     * Removes the car, once its delete is committed.
+     *
+     * @param id the id
+     */
+    public void remove(int id)
+    {
+        write(current -> current.remove(id));
+    }
+
+    /**
+     * Removes cars, if present, for good.
+     *
+     * @param ids the ids
+     */
+    public void removeAll(Collection<Integer> ids)
+    {
+        write(current -> ids.forEach(id -> current.remove(id)));
+    }
+
+    /**
+     * Counts the cars.
+     *
+     * @return the count
+     */
+    public long count()
+    {
+        return read(current -> (long) current.size);
+    }
+
+    /**
+     * Finds the cars whose colour has the key of the given colour, by id.
+     *
+     * @param colour the colour
+     * @return the cars
+     */
+    public List<Car> findByColour(String colour)
+    {
+        Integer colourKey = dictionaries.colours().findLoaded(CarKeys.colour(colour));
+        return colourKey == null ? new ArrayList<>()
+                : read(current -> cars(current, current.ids(current.byColourKey.get(colourKey))));
+    }
+
+    /**
+     * Finds the cars whose brand has the key of the given brand, by id.
+     *
+     * @param brand the brand
+     * @return the cars
+     */
+    public List<Car> findByBrand(String brand)
+    {
+        Integer brandKey = dictionaries.brands().findLoaded(CarKeys.brand(brand));
+        return brandKey == null ? new ArrayList<>()
+                : read(current -> cars(current, current.ids(current.byBrandKey.get(brandKey))));
+    }
+
+    /**
+     * Finds the first cars by production year, then id.
+     *
+     * @param limit the maximum number of cars
+     * @return the cars
+     */
+    public List<Car> findSortedByYear(int limit)
+    {
+        return findSortedByYearAfter(Integer.MIN_VALUE, -1, limit);
+    }
+
+    /**
+     * Finds the cars after the given one by production year, then id.
+     *
+     * @param productionYear the production year of the last car of the previous page
+     * @param id             the id of the last car of the previous page
+     * @param limit          the maximum number of cars
+     * @return the cars
+     */
+    public List<Car> findSortedByYearAfter(int productionYear, int id, int limit)
+    {
+        return read(current -> cars(current, current.idsByYearAfter(productionYear, id, limit)));
+    }
+
+    /**
+     * Finds the first created car.
+     *
+     * @return the car, if any
+     */
+    public Optional<Car> findFirstCreated()
+    {
+        return read(current -> current.firstCreatedId() == Columns.NONE ? Optional.empty()
+                : Optional.of(car(current, current.rows.get(current.firstCreatedId()))));
+    }
+
+    /**
+     * Finds the last created car.
+     *
+     * @return the car, if any
+     */
+    public Optional<Car> findLastCreated()
+    {
+        return read(current -> current.lastCreatedId() == Columns.NONE ? Optional.empty()
+                : Optional.of(car(current, current.rows.get(current.lastCreatedId()))));
+    }
+
+    /**
+     * Whether writes must be applied: the snapshot is enabled, so writes committed while the
+     * table is read wait for the read to end, or it was loaded on demand.
+     */
+    private boolean isMaintained()
+    {
+        return enabled || columns != null;
+    }
+
+    private int size()
+    {
+        Columns current = columns;
+        return current == null ? 0 : current.size;
+    }
+
+    private <T> T read(Function<Columns, T> query)
+    {
+        lock.readLock().lock();
+        try {
+            return query.apply(columns);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Consumer<Columns> update)
+    {
+        lock.writeLock().lock();
+        try {
+            if (columns != null) {
+                update.accept(columns);
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Car> cars(Columns current, int[] ids)
+    {
+        List<Car> cars = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            cars.add(car(current, current.rows.get(id)));
+        }
+        return cars;
+    }
+
+    private Car car(Columns current, int row)
+    {
+        Car car = new Car(current.licenseNumbers[row],
+                dictionaries.brands().name(current.brands[row]),
+                dictionaries.models().name(current.models[row]),
+                dictionaries.colours().name(current.colours[row]),
+                current.productionYears[row],
+                current.bodyTypes[row] == Columns.NONE ? null : Columns.BODY_TYPES[current.bodyTypes[row]]);
+        car.setId(current.ids[row]);
+        car.setCreationDate(timestamp(current.creationDates[row]));
+        car.setVersion(current.versions[row]);
+        return car;
+    }
+
+    private static long micros(Timestamp timestamp)
+    {
+        return Math.floorDiv(timestamp.getTime(), 1000L) * 1_000_000L + timestamp.getNanos() / 1000;
+    }
+
+    private static Timestamp timestamp(long micros)
+    {
+        Timestamp timestamp = new Timestamp(Math.floorDiv(micros, 1_000_000L) * 1000);
+        timestamp.setNanos((int) Math.floorMod(micros, 1_000_000L) * 1000);
+        return timestamp;
+    }
+
+    /**
+     * One row of the cars table, brands, models and colours as their dictionary ids and
+     * the creation date in microseconds since the epoch, the precision of the column.
+     */
+    static final class Row
+    {
+        private final int id;
+
+        private final String licenseNumber;
+
+        private final int brand;
+
+        private final int brandKey;
+
+        private final int model;
+
+        private final int colour;
+
+        private final int colourKey;
+
+        private final int productionYear;
+
+        private final BodyType bodyType;
+
+        private final long creationDate;
+
+        private final long version;
+
+        Row(int id, String licenseNumber, int brand, int brandKey, int model, int colour, int colourKey,
+            int productionYear, BodyType bodyType, long creationDate, long version)
+        {
+            this.id = id;
+            this.licenseNumber = licenseNumber;
+            this.brand = brand;
+            this.brandKey = brandKey;
+            this.model = model;
+            this.colour = colour;
+            this.colourKey = colourKey;
+            this.productionYear = productionYear;
+            this.bodyType = bodyType;
+            this.creationDate = creationDate;
+            this.version = version;
+        }
+    }
+
+    /**
+     * The columns and indexes. Not thread-safe.
+     * <p>
+     * The row of a removed car is reused by the next car added. The bitmaps hold car ids
+     * rather than rows, so they are walked in id order. The ids of removed cars are kept, so
+     * that a stale write applied after the removal does not add the car back.
+     */
+    static final class Columns
+    {
+        static final int NONE = RowIndex.NONE;
+
+        static final BodyType[] BODY_TYPES = BodyType.values();
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private int[] ids = new int[INITIAL_CAPACITY];
+
+        private String[] licenseNumbers = new String[INITIAL_CAPACITY];
+
+        private int[] brands = new int[INITIAL_CAPACITY];
+
+        private int[] brandKeys = new int[INITIAL_CAPACITY];
+
+        private int[] models = new int[INITIAL_CAPACITY];
+
+        private int[] colours = new int[INITIAL_CAPACITY];
+
+        private int[] colourKeys = new int[INITIAL_CAPACITY];
+
+        private int[] productionYears = new int[INITIAL_CAPACITY];
+
+        private byte[] bodyTypes = new byte[INITIAL_CAPACITY];
+
+        private long[] creationDates = new long[INITIAL_CAPACITY];
+
+        private long[] versions = new long[INITIAL_CAPACITY];
+
+        private int rowCount;
+
+        private int size;
+
+        private final RoaringBitmap freeRows = new RoaringBitmap();
+
+        private final RoaringBitmap removedIds = new RoaringBitmap();
+
+        private final RowIndex rows = new RowIndex();
+
+        private final Map<Integer, RoaringBitmap> byBrandKey = new HashMap<>();
+
+        private final Map<Integer, RoaringBitmap> byColourKey = new HashMap<>();
+
+        private final NavigableMap<Integer, RoaringBitmap> byProductionYear = new TreeMap<>();
+
+        private int firstCreated = NONE;
+
+        private int lastCreated = NONE;
+
+        /**
+         * Adds the car, or replaces the car with the same id if the row has a newer version.
+         * Ignores a removed car.
+         */
+        void put(Row row)
+        {
+            if (removedIds.contains(row.id)) {
+                return;
+            }
+            int index = rows.get(row.id);
+            if (index != NONE && versions[index] >= row.version) {
+                return;
+            }
+            if (index == NONE) {
+                index = allocate();
+                rows.put(row.id, index);
+                size++;
+            }
+            else {
+                unindex(index);
+            }
+            long previousCreationDate = creationDates[index];
+            ids[index] = row.id;
+            licenseNumbers[index] = row.licenseNumber;
+            brands[index] = row.brand;
+            brandKeys[index] = row.brandKey;
+            models[index] = row.model;
+            colours[index] = row.colour;
+            colourKeys[index] = row.colourKey;
+            productionYears[index] = row.productionYear;
+            bodyTypes[index] = (byte) (row.bodyType == null ? NONE : row.bodyType.ordinal());
+            creationDates[index] = row.creationDate;
+            versions[index] = row.version;
+            bitmap(byBrandKey, row.brandKey).add(row.id);
+            bitmap(byColourKey, row.colourKey).add(row.id);
+            bitmap(byProductionYear, row.productionYear).add(row.id);
+            if ((index == firstCreated || index == lastCreated) && row.creationDate != previousCreationDate) {
+                findCreationBounds();
+            }
+            else {
+                trackCreationBounds(index);
+            }
+        }
+
+        /**
+         * Removes the car, if present, for good.
+         */
+        void remove(int id)
+        {
+            removedIds.add(id);
+            int index = rows.remove(id);
+            if (index == NONE) {
+                return;
+            }
+            unindex(index);
+            licenseNumbers[index] = null;
+            freeRows.add(index);
+            size--;
+            if (index == firstCreated || index == lastCreated) {
+                findCreationBounds();
+            }
+        }
+
+        /**
+         * Gets the ids of the cars matching every given filter.
+         */
+        RoaringBitmap matching(Integer brandKey, Integer colourKey, Integer productionYear)
+        {
+            RoaringBitmap matching = null;
+            if (brandKey != null) {
+                matching = and(matching, byBrandKey.get(brandKey));
+            }
+            if (colourKey != null) {
+                matching = and(matching, byColourKey.get(colourKey));
+            }
+            if (productionYear != null) {
+                matching = and(matching, byProductionYear.get(productionYear));
+            }
+            if (matching == null) {
+                matching = new RoaringBitmap();
+                for (int row = 0; row < rowCount; row++) {
+                    if (licenseNumbers[row] != null) {
+                        matching.add(ids[row]);
+                    }
+                }
+            }
+            return matching;
+        }
+
+        private static RoaringBitmap and(RoaringBitmap matching, RoaringBitmap bitmap)
+        {
+            if (bitmap == null) {
+                return new RoaringBitmap();
+            }
+            return matching == null ? bitmap.clone() : RoaringBitmap.and(matching, bitmap);
+        }
+
+        /**
+         * Gets the id of the first created car, {@link #NONE} if empty.
+         */
+        int firstCreatedId()
+        {
+            return firstCreated == NONE ? NONE : ids[firstCreated];
+        }
+
+        /**
+         * Gets the id of the last created car, {@link #NONE} if empty.
+         */
+        int lastCreatedId()
+        {
+            return lastCreated == NONE ? NONE : ids[lastCreated];
+        }
+
+        /**
+         * Gets the ids of the bitmap in order, none for a missing bitmap.
+         */
+        int[] ids(RoaringBitmap bitmap)
+        {
+            return bitmap == null ? new int[0] : bitmap.toArray();
+        }
+
+        /**
+         * Gets the ids of the cars following the given year and id, in that order.
+         */
+        int[] idsByYearAfter(int productionYear, int id, int limit)
+        {
+            int[] page = new int[limit];
+            int found = 0;
+            for (Map.Entry<Integer, RoaringBitmap> year : byProductionYear.tailMap(productionYear, true).entrySet()) {
+                PeekableIntIterator ids = year.getValue().getIntIterator();
+                if (year.getKey() == productionYear && id >= 0) {
+                    ids.advanceIfNeeded(id + 1);
+                }
+                while (found < limit && ids.hasNext()) {
+                    page[found++] = ids.next();
+                }
+                if (found == limit) {
+                    break;
+                }
+            }
+            return Arrays.copyOf(page, found);
+        }
+
+        private int allocate()
+        {
+            if (!freeRows.isEmpty()) {
+                int row = freeRows.first();
+                freeRows.remove(row);
+                return row;
+            }
+            if (rowCount == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                licenseNumbers = Arrays.copyOf(licenseNumbers, capacity);
+                brands = Arrays.copyOf(brands, capacity);
+                brandKeys = Arrays.copyOf(brandKeys, capacity);
+                models = Arrays.copyOf(models, capacity);
+                colours = Arrays.copyOf(colours, capacity);
+                colourKeys = Arrays.copyOf(colourKeys, capacity);
+                productionYears = Arrays.copyOf(productionYears, capacity);
+                bodyTypes = Arrays.copyOf(bodyTypes, capacity);
+                creationDates = Arrays.copyOf(creationDates, capacity);
+                versions = Arrays.copyOf(versions, capacity);
+            }
+            return rowCount++;
+        }
+
+        private void unindex(int index)
+        {
+            int id = ids[index];
+            unindex(byBrandKey, brandKeys[index], id);
+            unindex(byColourKey, colourKeys[index], id);
+            unindex(byProductionYear, productionYears[index], id);
+        }
+
+        private static void unindex(Map<Integer, RoaringBitmap> index, int key, int id)
+        {
+            RoaringBitmap bitmap = index.get(key);
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                index.remove(key);
+            }
+        }
+
+        private static RoaringBitmap bitmap(Map<Integer, RoaringBitmap> index, int key)
+        {
+            return index.computeIfAbsent(key, k -> new RoaringBitmap());
+        }
+
+        /**
+         * Makes the row the first or last created car if it was created before the first or
+         * after the last one; ties go to the lowest id first, the highest id last.
+         */
+        private void trackCreationBounds(int index)
+        {
+            if (firstCreated == NONE || compareCreation(index, firstCreated) < 0) {
+                firstCreated = index;
+            }
+            if (lastCreated == NONE || compareCreation(index, lastCreated) > 0) {
+                lastCreated = index;
+            }
+        }
+
+        private void findCreationBounds()
+        {
+            firstCreated = NONE;
+            lastCreated = NONE;
+            for (int row = 0; row < rowCount; row++) {
+                if (licenseNumbers[row] != null) {
+                    trackCreationBounds(row);
+                }
+            }
+        }
+
+        private int compareCreation(int row, int other)
+        {
+            int byDate = Long.compare(creationDates[row], creationDates[other]);
+            return byDate != 0 ? byDate : Integer.compare(ids[row], ids[other]);
+        }
+    }
+}
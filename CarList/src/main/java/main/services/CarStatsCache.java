@@ -0,0 +1,79 @@
+package main.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import main.model.CarKeys;
+import main.model.CarStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of car statistics by filter.
+ * <p>
+ * Statistics are kept for {@code cars.stats.ttl} after they were computed and are not
+ * invalidated by writes, so they may lag behind by up to that long. Concurrent requests
+ * for the same filters wait for a single computation. Statistics are published as the
+ * {@code cache.*} meters tagged {@code cache=carStats}. Brands and colours are cached by their
+ * {@link CarKeys}, so spellings of the same filter share an entry.
+ */
+@Component
+public class CarStatsCache
+{
+    private final Cache<List<Object>, CarStats> cache;
+
+    private final Duration ttl;
+
+    /**
+     * Instantiates a new Car stats cache.
+     *
+     * @param maximumSize the maximum number of cached filter combinations
+     * @param ttl         the time statistics stay cached after they were computed
+     * @param registry    the meter registry
+     */
+    public CarStatsCache(@Value("${cars.stats.maximum-size:1000}") long maximumSize,
+                         @Value("${cars.stats.ttl:5s}") Duration ttl,
+                         MeterRegistry registry)
+    {
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "carStats");
+    }
+
+    /**
+     * Gets the statistics, computing them on a miss.
+     *
+     * @param brand          the brand filter, may be null
+     * @param colour         the colour filter, may be null
+     * @param productionYear the production year filter, may be null
+     * @param yearBucket     the width of the production year buckets
+     * @param loader         the computation of missing statistics
+     * @return the statistics
+     */
+    public CarStats get(String brand, String colour, Integer productionYear, int yearBucket,
+                        Supplier<CarStats> loader)
+    {
+        return cache.get(Arrays.asList(CarKeys.brand(brand), CarKeys.colour(colour), productionYear, yearBucket),
+                key -> loader.get());
+    }
+
+    /**
+     * Gets the time statistics stay cached.
+     *
+     * @return the ttl
+     */
+    public Duration getTtl()
+    {
+        return ttl;
+    }
+}
@@ -0,0 +1,43 @@
+package main.services;
+
+/**
+ * A car found by its license number in the {@link CarPlateIndex}.
+ */
+public class PlateMatch
+{
+    private final int id;
+
+    private final String licenseNumber;
+
+    /**
+     * Instantiates a new Plate match.
+     *
+     * @param id            the car id
+     * @param licenseNumber the license number, in upper case
+     */
+    public PlateMatch(int id, String licenseNumber)
+    {
+        this.id = id;
+        this.licenseNumber = licenseNumber;
+    }
+
+    /**
+     * Gets id.
+     *
+     * @return the id
+     */
+    public int getId()
+    {
+        return id;
+    }
+
+    /**
+     * Gets license number.
+     *
+     * @return the license number, in upper case
+     */
+    public String getLicenseNumber()
+    {
+        return licenseNumber;
+    }
+}
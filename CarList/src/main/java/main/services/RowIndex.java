@@ -0,0 +1,119 @@
+package main.services;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map of non-negative ints, car ids to rows for the {@link CarSnapshot} and
+ * to license number codes for the {@link CarPlateIndex}, with linear probing and
+ * backward-shift deletion, so it holds no boxed keys or values.
+ */
+final class RowIndex
+{
+    /**
+     * The value of an absent key.
+     */
+    static final int NONE = -1;
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private int[] keys = emptyKeys(16);
+
+    private int[] values = new int[16];
+
+    private int size;
+
+    /**
+     * Gets the row of the id, {@link #NONE} if absent.
+     */
+    int get(int id)
+    {
+        for (int slot = slot(id); ; slot = next(slot)) {
+            if (keys[slot] == id) {
+                return values[slot];
+            }
+            if (keys[slot] == EMPTY) {
+                return NONE;
+            }
+        }
+    }
+
+    /**
+     * Maps the id to the row.
+     */
+    void put(int id, int row)
+    {
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int slot = slot(id);
+        while (keys[slot] != EMPTY && keys[slot] != id) {
+            slot = next(slot);
+        }
+        if (keys[slot] == EMPTY) {
+            size++;
+        }
+        keys[slot] = id;
+        values[slot] = row;
+    }
+
+    /**
+     * Removes the id, moving back the ids probed after it.
+     *
+     * @return the row of the id, {@link #NONE} if absent
+     */
+    int remove(int id)
+    {
+        int slot = slot(id);
+        while (keys[slot] != id) {
+            if (keys[slot] == EMPTY) {
+                return NONE;
+            }
+            slot = next(slot);
+        }
+        int row = values[slot];
+        int hole = slot;
+        for (int probe = next(hole); keys[probe] != EMPTY; probe = next(probe)) {
+            int home = slot(keys[probe]);
+            if (((probe - home) & (keys.length - 1)) >= ((probe - hole) & (keys.length - 1))) {
+                keys[hole] = keys[probe];
+                values[hole] = values[probe];
+                hole = probe;
+            }
+        }
+        keys[hole] = EMPTY;
+        size--;
+        return row;
+    }
+
+    private void resize()
+    {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = emptyKeys(oldKeys.length * 2);
+        values = new int[oldKeys.length * 2];
+        size = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                put(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    private int slot(int id)
+    {
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (keys.length - 1);
+    }
+
+    private int next(int slot)
+    {
+        return (slot + 1) & (keys.length - 1);
+    }
+
+    private static int[] emptyKeys(int length)
+    {
+        int[] keys = new int[length];
+        Arrays.fill(keys, EMPTY);
+        return keys;
+    }
+}
@@ -0,0 +1,56 @@
+-- Schema of the entities in main.model, validated by Hibernate on start in the production profile.
+
+create table id_generators (
+    sequence_name varchar(255) not null,
+    next_val bigint,
+    primary key (sequence_name)
+) engine=InnoDB;
+
+insert into id_generators (sequence_name, next_val) values ('cars', 0);
+
+-- Dictionaries of names, stored as UTF-8 bytes so that names differing only in case are distinct.
+create table car_brands (
+    id integer not null auto_increment,
+    name varbinary(1020) not null,
+    primary key (id),
+    constraint uk_car_brands_name unique (name)
+) engine=InnoDB;
+
+create table car_models (
+    id integer not null auto_increment,
+    name varbinary(1020) not null,
+    primary key (id),
+    constraint uk_car_models_name unique (name)
+) engine=InnoDB;
+
+create table car_colours (
+    id integer not null auto_increment,
+    name varbinary(1020) not null,
+    primary key (id),
+    constraint uk_car_colours_name unique (name)
+) engine=InnoDB;
+
+-- The name ids are only written through the dictionaries, which commit a name before any car
+-- refers to it; they are not declared as foreign keys, which would make InnoDB add an index
+-- on each of brand_id, model_id and colour_id.
+create table cars (
+    id integer not null,
+    license_number varchar(255) not null,
+    brand_id integer not null,
+    brand_key_id integer not null,
+    model_id integer not null,
+    colour_id integer not null,
+    colour_key_id integer not null,
+    production_year integer not null,
+    body_type varchar(255),
+    version bigint not null,
+    creation_date datetime(6) not null,
+    primary key (id),
+    constraint uk_cars_license_number unique (license_number)
+) engine=InnoDB;
+
+create index idx_cars_colour_key on cars (colour_key_id);
+create index idx_cars_brand_key_colour_key on cars (brand_key_id, colour_key_id);
+create index idx_cars_brand_key_model on cars (brand_key_id, model_id);
+create index idx_cars_creation_date on cars (creation_date);
+create index idx_cars_production_year_id on cars (production_year, id);
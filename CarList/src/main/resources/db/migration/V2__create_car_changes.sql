@@ -0,0 +1,13 @@
+-- Outbox of the car writes, one row per written car, see main.model.CarChangeLog.
+-- Positions are reserved from the car_changes row of id_generators, locked until the
+-- writing transaction commits, so rows become visible in the order of their positions.
+create table car_changes (
+    seq bigint not null,
+    car_id integer not null,
+    type varchar(16) not null,
+    version bigint,
+    changed_at datetime(6) not null,
+    primary key (seq)
+) engine=InnoDB;
+
+insert into id_generators (sequence_name, next_val) values ('car_changes', 0);
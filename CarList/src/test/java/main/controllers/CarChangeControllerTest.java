@@ -0,0 +1,98 @@
+package main.controllers;
+
+import main.model.BodyType;
+import main.model.Car;
+import main.model.CarChangeLog;
+import main.model.CarKeys;
+import main.model.CarRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CarChangeControllerTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("^id:(\\d+)$", Pattern.MULTILINE);
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private CarChangeLog carChangeLog;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void resumesTheStreamAfterTheLastEventId() throws Exception
+    {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        jdbcTemplate.update("delete from cars");
+        Car car = carRepository.save(new Car("м001рт96", "Subaru", "Legacy", "gray", 1994, BodyType.WAGON));
+        setColour(car, "white");
+        long seen = jdbcTemplate.queryForObject("select max(seq) from car_changes", Long.class);
+        setColour(car, "black");
+        long next = seen + 1;
+
+        MvcResult result = mockMvc.perform(get("/cars/changes/stream").param("after", "0")
+                .header("Last-Event-ID", seen))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        try {
+            String body = awaitEvent(result);
+            assertEquals(List.of(next), eventIds(body));
+            assertTrue(body.contains("event:" + CarChangeController.CHANGES_EVENT));
+            assertTrue(body.contains("\"seq\":" + next));
+            assertFalse(body.contains("\"seq\":" + seen + ","));
+        }
+        finally {
+            result.getRequest().getAsyncContext().complete();
+        }
+    }
+
+    private void setColour(Car car, String colour)
+    {
+        carChangeLog.update(car.getId(), () -> carRepository.updateColour(car.getId(), colour,
+                CarKeys.colour(colour), CarRepository.ANY_VERSION));
+    }
+
+    private static String awaitEvent(MvcResult result) throws Exception
+    {
+        long deadline = System.currentTimeMillis() + 10_000;
+        String body = result.getResponse().getContentAsString();
+        while (!body.endsWith("\n\n") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            body = result.getResponse().getContentAsString();
+        }
+        return body;
+    }
+
+    private static List<Long> eventIds(String body)
+    {
+        List<Long> ids = new ArrayList<>();
+        Matcher matcher = EVENT_ID.matcher(body);
+        while (matcher.find()) {
+            ids.add(Long.parseLong(matcher.group(1)));
+        }
+        return ids;
+    }
+}
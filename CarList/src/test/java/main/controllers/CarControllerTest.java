@@ -0,0 +1,112 @@
+package main.controllers;
+
+import main.model.BodyType;
+import main.model.Car;
+import main.model.CarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CarControllerTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockMvc mockMvc;
+
+    private Car car;
+
+    @BeforeEach
+    void setUp()
+    {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        jdbcTemplate.update("delete from cars");
+        car = carRepository.save(new Car("м001рт96", "Subaru", "Legacy", "gray", 1994, BodyType.WAGON));
+    }
+
+    @Test
+    void answersNotModifiedForTheCurrentTag() throws Exception
+    {
+        String eTag = mockMvc.perform(get("/cars/id={id}", car.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/cars/id={id}", car.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        mockMvc.perform(get("/cars/id={id}", car.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"12345\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void answersPreconditionFailedForAStaleTag() throws Exception
+    {
+        String eTag = CarETags.of(carRepository.findById(car.getId()).get());
+
+        mockMvc.perform(put("/cars/id={id}-set-colour={colour}", car.getId(), "white").header(HttpHeaders.IF_MATCH, eTag))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/cars/id={id}-set-colour={colour}", car.getId(), "black").header(HttpHeaders.IF_MATCH, eTag))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/cars/id={id}", car.getId()).header(HttpHeaders.IF_MATCH, eTag))
+                .andExpect(status().isPreconditionFailed());
+
+        assertEquals("white", carRepository.findById(car.getId()).get().getColour());
+    }
+
+    @Test
+    void answersNotFoundForAMissingCar() throws Exception
+    {
+        int missingId = car.getId() + 1000;
+
+        mockMvc.perform(get("/cars/id={id}", missingId))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(put("/cars/id={id}-set-colour={colour}", missingId, "white"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(put("/cars/id={id}-set-colour={colour}", missingId, "white").header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/cars/id={id}", missingId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void rejectsACursorOutOfIntRange() throws Exception
+    {
+        String wrapped = CarCursor.of((1L << 32) + car.getId()).encode();
+
+        mockMvc.perform(get("/cars/").param("cursor", wrapped))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/cars/sorted-by-year").param("cursor", CarCursor.of(1994, (1L << 32) + 1).encode()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void rejectsAnUnknownSearchOrder() throws Exception
+    {
+        mockMvc.perform(get("/cars/search").param("brand", "Subaru").param("order", "down"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/cars/search").param("brand", "Subaru").param("order", "desc"))
+                .andExpect(status().isOk());
+    }
+}
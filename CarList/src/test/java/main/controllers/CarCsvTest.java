@@ -0,0 +1,93 @@
+package main.controllers;
+
+import main.model.BodyType;
+import main.model.Car;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarCsvTest {
+
+    @Test
+    void parsesPlainAndEmptyFields()
+    {
+        Car car = CarCsv.parse("7,м626рт96,Subaru,Legacy,gray,1994,WAGON,2019-04-01 10:15:30.0");
+        assertEquals("м626рт96", car.getLicenseNumber());
+        assertEquals("Subaru", car.getBrand());
+        assertEquals(1994, car.getProductionYear());
+        assertEquals(BodyType.WAGON, car.getBodyType());
+        assertEquals(Timestamp.valueOf("2019-04-01 10:15:30"), car.getCreationDate());
+
+        Car defaults = CarCsv.parse(",м626рт96,Subaru,Legacy,gray,1994,,");
+        assertNull(defaults.getBodyType());
+        assertNotNull(defaults.getCreationDate());
+    }
+
+    @Test
+    void unquotesQuotedFields()
+    {
+        Car car = CarCsv.parse("1,\"м626рт96\",\"Mercedes, Benz\",\"The \"\"Best\"\"\",\"\",1994,SEDAN,");
+        assertEquals("м626рт96", car.getLicenseNumber());
+        assertEquals("Mercedes, Benz", car.getBrand());
+        assertEquals("The \"Best\"", car.getModel());
+        assertEquals("", car.getColour());
+    }
+
+    @Test
+    void writtenLinesParseBack() throws IOException
+    {
+        Car car = new Car("м626рт96", "Mercedes, Benz", "The \"Best\"", "gray", 1994, BodyType.SEDAN);
+        car.setId(3);
+        StringBuilder line = new StringBuilder();
+        CarCsv.write(car, line);
+        assertEquals('\n', line.charAt(line.length() - 1));
+
+        Car read = CarCsv.parse(line.substring(0, line.length() - 1));
+        assertEquals(car.getBrand(), read.getBrand());
+        assertEquals(car.getModel(), read.getModel());
+        assertEquals(car.getCreationDate(), read.getCreationDate());
+    }
+
+    @Test
+    void writesLineBreaksInsideFieldsAsSpaces() throws IOException
+    {
+        Car car = new Car("м626рт96", "Lada\nNiva", "2121\r\nTaiga", "white,\rgray", 1994, BodyType.SUV);
+        StringBuilder line = new StringBuilder();
+        CarCsv.write(car, line);
+        assertEquals(line.length() - 1, line.indexOf("\n"));
+        assertEquals(-1, line.indexOf("\r"));
+
+        Car read = CarCsv.parse(line.substring(0, line.length() - 1));
+        assertEquals("Lada Niva", read.getBrand());
+        assertEquals("2121 Taiga", read.getModel());
+        assertEquals("white, gray", read.getColour());
+    }
+
+    @Test
+    void rejectsUnterminatedQuotes()
+    {
+        assertThrows(IllegalArgumentException.class,
+                () -> CarCsv.parse("1,м626рт96,\"Subaru,Legacy,gray,1994,SEDAN,"));
+    }
+
+    @Test
+    void rejectsWrongColumnCounts()
+    {
+        assertThrows(IllegalArgumentException.class, () -> CarCsv.parse("1,м626рт96,Subaru,Legacy,gray,1994,SEDAN"));
+        assertThrows(IllegalArgumentException.class,
+                () -> CarCsv.parse("1,м626рт96,Subaru,Legacy,gray,1994,SEDAN,,extra"));
+        assertThrows(IllegalArgumentException.class, () -> CarCsv.parse(""));
+    }
+
+    @Test
+    void rejectsMalformedValues()
+    {
+        assertThrows(IllegalArgumentException.class, () -> CarCsv.parse("1,м626рт96,Subaru,Legacy,gray,old,SEDAN,"));
+        assertThrows(IllegalArgumentException.class, () -> CarCsv.parse("1,м626рт96,Subaru,Legacy,gray,1994,TANK,"));
+        assertThrows(IllegalArgumentException.class,
+                () -> CarCsv.parse("1,м626рт96,Subaru,Legacy,gray,1994,SEDAN,yesterday"));
+    }
+}
@@ -0,0 +1,62 @@
+package main.controllers;
+
+import main.model.CarSearch;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarCursorTest {
+
+    @Test
+    void encodeAndDecode()
+    {
+        CarCursor cursor = CarCursor.decode(CarCursor.of(1994, 87630).encode(), 2);
+        assertEquals(1994, cursor.key(0));
+        assertEquals(87630, cursor.key(1));
+    }
+
+    @Test
+    void encodeIsOpaque()
+    {
+        String encoded = CarCursor.of(111).encode();
+        assertNotEquals("111", encoded);
+        assertEquals(111, CarCursor.decode(encoded, 1).key(0));
+    }
+
+    @Test
+    void decodeWrongKeyCount()
+    {
+        String encoded = CarCursor.of(1994, 87630).encode();
+        assertThrows(IllegalArgumentException.class, () -> CarCursor.decode(encoded, 1));
+    }
+
+    @Test
+    void decodeMalformed()
+    {
+        assertThrows(IllegalArgumentException.class, () -> CarCursor.decode("not a cursor", 1));
+        assertThrows(IllegalArgumentException.class, () -> CarCursor.decode(CarCursor.of(1).encode() + "x", 1));
+    }
+
+    @Test
+    void decodeKeysOutOfIntRange()
+    {
+        long wrapped = (1L << 32) + 5;
+        assertThrows(IllegalArgumentException.class, () -> CarCursor.decode(CarCursor.of(wrapped).encode(), 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> CarCursor.decode(CarCursor.of(Integer.MIN_VALUE - 1L, 5).encode(), 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> CarCursor.decode(CarCursor.of(1994, wrapped).encode(), CarSearch.Sort.PRODUCTION_YEAR));
+        assertThrows(IllegalArgumentException.class,
+                () -> CarCursor.decode(CarCursor.of(wrapped, wrapped).encode(), CarSearch.Sort.CREATION_DATE));
+        assertEquals(Integer.MAX_VALUE, CarCursor.decode(CarCursor.of(Integer.MAX_VALUE).encode(), 1).intKey(0));
+    }
+
+    @Test
+    void decodeCreationDateKeysAsLongs()
+    {
+        long micros = 1_555_000_000_000_000L;
+        CarCursor cursor = CarCursor.decode(CarCursor.of(micros, 87630).encode(), CarSearch.Sort.CREATION_DATE);
+        assertEquals(micros, cursor.key(0));
+        assertEquals(87630, cursor.intKey(1));
+    }
+}
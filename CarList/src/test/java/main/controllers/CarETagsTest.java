@@ -0,0 +1,64 @@
+package main.controllers;
+
+import main.model.BodyType;
+import main.model.Car;
+import main.model.CarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarETagsTest {
+
+    Car car;
+    Car otherCar;
+
+    @BeforeEach
+    void setUp()
+    {
+        car = new Car("м626рт96", "Subaru", "Legacy", "gray", 1994, BodyType.WAGON);
+        car.setId(1);
+        car.setVersion(3);
+        otherCar = new Car("т423кн42", "Nissan", "Wingroad", "white", 2003, BodyType.WAGON);
+        otherCar.setId(2);
+    }
+
+    @Test
+    void ofCar()
+    {
+        assertEquals("\"3\"", CarETags.of(car));
+    }
+
+    @Test
+    void ofPageChangesWithVersion()
+    {
+        String eTag = CarETags.of(Arrays.asList(car, otherCar));
+        assertTrue(eTag.startsWith("W/\""));
+        assertEquals(eTag, CarETags.of(Arrays.asList(car, otherCar)));
+        otherCar.setVersion(1);
+        assertNotEquals(eTag, CarETags.of(Arrays.asList(car, otherCar)));
+    }
+
+    @Test
+    void expectedVersion()
+    {
+        assertEquals(CarRepository.ANY_VERSION, CarETags.expectedVersion(null));
+        assertEquals(CarRepository.ANY_VERSION, CarETags.expectedVersion("*"));
+        assertEquals(3, CarETags.expectedVersion("\"3\""));
+        assertThrows(IllegalArgumentException.class, () -> CarETags.expectedVersion("3"));
+        assertThrows(IllegalArgumentException.class, () -> CarETags.expectedVersion("W/\"3\""));
+        assertThrows(IllegalArgumentException.class, () -> CarETags.expectedVersion("\"-1\""));
+    }
+
+    @Test
+    void matches()
+    {
+        assertFalse(CarETags.matches(null, "\"3\""));
+        assertTrue(CarETags.matches("\"3\"", "\"3\""));
+        assertTrue(CarETags.matches("\"1\", W/\"3\"", "\"3\""));
+        assertTrue(CarETags.matches("*", "\"3\""));
+        assertFalse(CarETags.matches("\"2\"", "\"3\""));
+    }
+}
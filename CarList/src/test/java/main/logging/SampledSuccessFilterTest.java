@@ -0,0 +1,55 @@
+package main.logging;
+
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MarkerFactory;
+
+import static main.logging.SampledSuccessFilter.SUCCESS;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampledSuccessFilterTest {
+
+    SampledSuccessFilter filter;
+
+    @BeforeEach
+    void setUp()
+    {
+        filter = new SampledSuccessFilter();
+    }
+
+    @Test
+    void keepsEverySuccessByDefault()
+    {
+        assertEquals(FilterReply.NEUTRAL, filter.decide(SUCCESS, null, null, "getCar:success", null, null));
+    }
+
+    @Test
+    void neverDropsUnmarkedEvents()
+    {
+        filter.setRate(0);
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, null, null, "getCar:failed", null, null));
+        assertEquals(FilterReply.NEUTRAL,
+                filter.decide(MarkerFactory.getMarker("OTHER"), null, null, "getCar:failed", null, null));
+    }
+
+    @Test
+    void dropsEverySuccessWhenOff()
+    {
+        filter.setRate(0);
+        assertEquals(FilterReply.DENY, filter.decide(SUCCESS, null, null, "getCar:success", null, null));
+    }
+
+    @Test
+    void keepsOneInRate()
+    {
+        filter.setRate(10);
+        int kept = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.decide(SUCCESS, null, null, "getCar:success", null, null) == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+        assertTrue(kept > 9_000 && kept < 11_000, "kept " + kept);
+    }
+}
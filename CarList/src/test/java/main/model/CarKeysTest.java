@@ -0,0 +1,41 @@
+package main.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarKeysTest {
+
+    @Test
+    void colour()
+    {
+        assertEquals("gray", CarKeys.colour("gray"));
+        assertEquals("gray", CarKeys.colour("Gray"));
+        assertEquals("gray", CarKeys.colour("grey "));
+        assertEquals("dark gray", CarKeys.colour("  Dark \t Grey"));
+        assertEquals("белый", CarKeys.colour("Белый"));
+        assertNull(CarKeys.colour(null));
+    }
+
+    @Test
+    void brand()
+    {
+        assertEquals("subaru", CarKeys.brand(" SUBARU"));
+        assertEquals("volkswagen", CarKeys.brand("VW"));
+        assertEquals("lada", CarKeys.brand("Лада"));
+        assertEquals("", CarKeys.brand("   "));
+        assertNull(CarKeys.brand(null));
+    }
+
+    @Test
+    void carKeepsKeysInSync()
+    {
+        Car car = new Car("м626рт96", "Subaru ", "Legacy", "Grey", 1994, BodyType.WAGON);
+        assertEquals("subaru", car.getBrandKey());
+        assertEquals("gray", car.getColourKey());
+        car.setColour("White");
+        car.setBrand("VW");
+        assertEquals("white", car.getColourKey());
+        assertEquals("volkswagen", car.getBrandKey());
+    }
+}
@@ -0,0 +1,93 @@
+package main.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarPlatesTest {
+
+    @Test
+    void codesReadBackAsUpperCasePlates()
+    {
+        assertEquals("М626РТ96", CarPlates.plate(CarPlates.code("м626рт96")));
+        assertEquals("М626РТ196", CarPlates.plate(CarPlates.code("м626рт196")));
+        assertEquals(CarPlates.code("М626РТ96"), CarPlates.code("M626PT96"));
+        assertEquals(-1, CarPlates.code("м000рт96"));
+        assertEquals(-1, CarPlates.code("м626рт9"));
+        assertEquals(-1, CarPlates.code("д626рт96"));
+    }
+
+    @Test
+    void codesFollowThePlateOrder()
+    {
+        List<String> plates = List.of("А001АА10", "А001АА100", "А001АА109", "А001АА11", "А001АА99", "А001АА999",
+                "А001АВ10", "А002АА10", "В001АА10", "Х999ХХ999");
+        List<Integer> codes = new ArrayList<>();
+        for (String plate : plates) {
+            codes.add(CarPlates.code(plate));
+        }
+        for (int i = 1; i < codes.size(); i++) {
+            assertTrue(codes.get(i - 1) < codes.get(i), plates.get(i));
+        }
+        assertTrue(codes.get(codes.size() - 1) > 0);
+    }
+
+    @Test
+    void prefixesAreRangesOfCodes()
+    {
+        int[] range = CarPlates.range("м626");
+        assertTrue(range[0] <= CarPlates.code("м626АА10") && CarPlates.code("м626ХХ999") <= range[1]);
+        assertTrue(CarPlates.code("м627АА10") > range[1]);
+        assertTrue(CarPlates.code("м625ХХ999") < range[0]);
+
+        int[] region = CarPlates.range("м626рт9");
+        assertTrue(region[0] <= CarPlates.code("м626рт90") && CarPlates.code("м626рт999") <= region[1]);
+        assertTrue(CarPlates.code("м626рт89") < region[0]);
+        assertTrue(CarPlates.code("м626рт100") < region[0]);
+        assertTrue(CarPlates.code("м626рт999") < CarPlates.code("м626рх10"));
+
+        int[] whole = CarPlates.range("м626рт96");
+        assertEquals(CarPlates.code("м626рт96"), whole[0]);
+        assertEquals(CarPlates.code("м626рт969"), whole[1]);
+
+        assertNull(CarPlates.range("96"));
+        assertNull(CarPlates.range("м626рт96х"));
+    }
+
+    @Test
+    void regionsAreRankedByTheirDigits()
+    {
+        assertEquals(CarPlates.region("96"), CarPlates.regionOf(CarPlates.code("м626рт96")));
+        assertEquals(CarPlates.region("196"), CarPlates.regionOf(CarPlates.code("м626рт196")));
+        assertEquals(-1, CarPlates.region("9"));
+        assertEquals(-1, CarPlates.region("9а"));
+    }
+
+    @Test
+    void findsPlatesOneEditAway()
+    {
+        int[] codes = CarPlates.withinOneEdit("м626рт96");
+        assertTrue(contains(codes, CarPlates.code("м626рт96")));
+        assertTrue(contains(codes, CarPlates.code("м628рт96")));
+        assertTrue(contains(codes, CarPlates.code("м626рт196")));
+        assertTrue(contains(codes, CarPlates.code("м626ра96")));
+        assertFalse(contains(codes, CarPlates.code("м628ра96")));
+
+        assertTrue(contains(CarPlates.withinOneEdit("м62рт96"), CarPlates.code("м626рт96")));
+        assertTrue(contains(CarPlates.withinOneEdit("м6266рт96"), CarPlates.code("м626рт96")));
+        assertEquals(0, CarPlates.withinOneEdit("м62").length);
+    }
+
+    private static boolean contains(int[] codes, int code)
+    {
+        for (int c : codes) {
+            if (c == code) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
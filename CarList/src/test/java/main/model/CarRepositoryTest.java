@@ -0,0 +1,168 @@
+package main.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CarRepositoryTest {
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clear()
+    {
+        jdbcTemplate.update("delete from cars");
+    }
+
+    private List<Car> save(String brand, String colour, int productionYear, BodyType bodyType, int count)
+    {
+        List<Car> cars = new ArrayList<>(count);
+        long existing = carRepository.count();
+        for (int i = 0; i < count; i++) {
+            cars.add(new Car(String.format("м%03dрт96", existing + i + 1), brand, "Legacy", colour, productionYear,
+                    bodyType));
+        }
+        carRepository.saveAll(cars);
+        return cars;
+    }
+
+    private static List<Integer> ids(Iterable<Car> cars)
+    {
+        return StreamSupport.stream(cars.spliterator(), false).map(Car::getId).sorted().collect(Collectors.toList());
+    }
+
+    @Test
+    void deletesMatchingCarsInChunksAndLogsEachOnce()
+    {
+        List<Car> subarus = save("Subaru", "gray", 1994, BodyType.WAGON, 7);
+        List<Car> nissans = save("Nissan", "gray", 1994, BodyType.WAGON, 2);
+        long lastSeq = jdbcTemplate.queryForObject("select coalesce(max(seq), 0) from car_changes", Long.class);
+
+        List<List<Integer>> chunks = new ArrayList<>();
+
+        assertEquals(7, carRepository.deleteAllMatching(" subaru", null, null, 3, chunks::add));
+
+        assertEquals(List.of(3, 3, 1), chunks.stream().map(List::size).collect(Collectors.toList()));
+        assertEquals(ids(subarus), chunks.stream().flatMap(List::stream).sorted().collect(Collectors.toList()));
+
+        assertEquals(ids(nissans), ids(carRepository.findAll()));
+        List<Integer> logged = jdbcTemplate.queryForList(
+                "select car_id from car_changes where seq > ? and type = 'DELETED' order by car_id",
+                Integer.class, lastSeq);
+        assertEquals(ids(subarus), logged);
+    }
+
+    @Test
+    void deletesAWholeNumberOfChunks()
+    {
+        save("Subaru", "gray", 1994, BodyType.WAGON, 6);
+        List<Car> white = save("Subaru", "white", 1994, BodyType.WAGON, 1);
+
+        List<List<Integer>> chunks = new ArrayList<>();
+
+        assertEquals(6, carRepository.deleteAllMatching("Subaru", "GRAY", 1994, 3, chunks::add));
+        assertEquals(0, carRepository.deleteAllMatching("Subaru", "gray", null, 3, chunks::add));
+        assertEquals(0, carRepository.deleteAllMatching("Unknown", null, null, 3, chunks::add));
+        assertEquals(2, chunks.size());
+        for (int chunkSize : new int[]{0, -1}) {
+            InvalidDataAccessApiUsageException e = assertThrows(InvalidDataAccessApiUsageException.class,
+                    () -> carRepository.deleteAllMatching("Subaru", null, null, chunkSize, chunks::add));
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+        assertEquals(ids(white), ids(carRepository.findAll()));
+    }
+
+    @Test
+    void updatesColourOnlyAtTheExpectedVersion()
+    {
+        Car car = save("Subaru", "gray", 1994, BodyType.WAGON, 1).get(0);
+        long version = carRepository.findById(car.getId()).get().getVersion();
+
+        assertEquals(1, carRepository.updateColour(car.getId(), "white", CarKeys.colour("white"), version));
+        assertEquals(0, carRepository.updateColour(car.getId(), "black", CarKeys.colour("black"), version));
+        assertEquals(1, carRepository.updateColour(car.getId(), "red", CarKeys.colour("red"),
+                CarRepository.ANY_VERSION));
+
+        Car updated = carRepository.findById(car.getId()).get();
+        assertEquals("red", updated.getColour());
+        assertEquals(version + 2, updated.getVersion());
+    }
+
+    @Test
+    void updatesLicenseNumberOnlyAtTheExpectedVersion()
+    {
+        Car car = save("Subaru", "gray", 1994, BodyType.WAGON, 1).get(0);
+        long version = carRepository.findById(car.getId()).get().getVersion();
+
+        assertEquals(1, carRepository.updateLicenseNumber(car.getId(), "а001аа77", version));
+        assertEquals(0, carRepository.updateLicenseNumber(car.getId(), "в002вв77", version));
+        assertEquals(1, carRepository.updateLicenseNumber(car.getId(), "е003ее77", CarRepository.ANY_VERSION));
+
+        Car updated = carRepository.findById(car.getId()).get();
+        assertEquals("е003ее77", updated.getLicenseNumber());
+        assertEquals(version + 2, updated.getVersion());
+    }
+
+    @Test
+    void deletesOnlyAtTheExpectedVersion()
+    {
+        List<Car> cars = save("Subaru", "gray", 1994, BodyType.WAGON, 2);
+        Car first = cars.get(0);
+        Car second = cars.get(1);
+        long version = carRepository.findById(first.getId()).get().getVersion();
+
+        assertEquals(0, carRepository.deleteCarById(first.getId(), version + 1));
+        assertTrue(carRepository.existsById(first.getId()));
+        assertEquals(1, carRepository.deleteCarById(first.getId(), version));
+        assertEquals(1, carRepository.deleteCarById(second.getId(), CarRepository.ANY_VERSION));
+        assertEquals(0, carRepository.deleteCarById(second.getId(), CarRepository.ANY_VERSION));
+        assertEquals(0, carRepository.count());
+    }
+
+    @Test
+    void countsFacetsOfTheMatchingCars()
+    {
+        save("Subaru", "gray", 1994, BodyType.WAGON, 3);
+        save("Subaru", "white", 1996, BodyType.SEDAN, 2);
+        save("Subaru", "gray", 2001, BodyType.SEDAN, 1);
+        save("Nissan", "gray", 1994, BodyType.WAGON, 4);
+
+        CarStats all = carRepository.countFacets(null, null, null, 5);
+        assertEquals(10, all.getTotal());
+        assertEquals(6L, all.getBrands().get("subaru"));
+        assertEquals(4L, all.getBrands().get("nissan"));
+        assertEquals(8L, all.getColours().get("gray"));
+        assertEquals(2L, all.getColours().get("white"));
+        assertEquals(7L, all.getBodyTypes().get(BodyType.WAGON.name()));
+        assertEquals(3L, all.getBodyTypes().get(BodyType.SEDAN.name()));
+        assertEquals(7L, all.getProductionYears().get(1990));
+        assertEquals(2L, all.getProductionYears().get(1995));
+        assertEquals(1L, all.getProductionYears().get(2000));
+
+        CarStats grayCars = carRepository.countFacets(" SUBARU", "Gray", null, 10);
+        assertEquals(4, grayCars.getTotal());
+        assertEquals(1, grayCars.getBrands().size());
+        assertEquals(4L, grayCars.getColours().get("gray"));
+        assertEquals(3L, grayCars.getProductionYears().get(1990));
+        assertEquals(1L, grayCars.getProductionYears().get(2000));
+
+        assertEquals(0, carRepository.countFacets("Unknown", null, null, 5).getTotal());
+    }
+}
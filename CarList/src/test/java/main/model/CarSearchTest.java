@@ -0,0 +1,66 @@
+package main.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarSearchTest {
+
+    @Test
+    void sortOf()
+    {
+        assertEquals(CarSearch.Sort.ID, CarSearch.Sort.of("id"));
+        assertEquals(CarSearch.Sort.PRODUCTION_YEAR, CarSearch.Sort.of("productionYear"));
+        assertEquals(CarSearch.Sort.CREATION_DATE, CarSearch.Sort.of("creationDate"));
+        assertThrows(IllegalArgumentException.class, () -> CarSearch.Sort.of("licenseNumber"));
+    }
+
+    @Test
+    void isDescending()
+    {
+        CarSearch search = new CarSearch();
+        assertFalse(search.isDescending());
+        search.setOrder("desc");
+        assertTrue(search.isDescending());
+        search.setOrder("up");
+        assertThrows(IllegalArgumentException.class, search::isDescending);
+    }
+
+    @Test
+    void validate()
+    {
+        CarSearch search = new CarSearch();
+        search.setSort("productionYear");
+        search.setOrder("desc");
+        search.validate();
+        search.setOrder("down");
+        assertThrows(IllegalArgumentException.class, search::validate);
+        search.setOrder("asc");
+        search.setSort("licenseNumber");
+        assertThrows(IllegalArgumentException.class, search::validate);
+    }
+
+    @Test
+    void creationDateKeysKeepMicroseconds()
+    {
+        Car car = new Car("м626рт96", "Subaru", "Legacy", "gray", 1994, BodyType.WAGON);
+        car.setId(7);
+        Timestamp creationDate = Timestamp.valueOf("1969-12-31 23:59:59.123456");
+        car.setCreationDate(creationDate);
+        long[] keys = CarSearch.Sort.CREATION_DATE.keysOf(car);
+        assertEquals(7, keys[1]);
+        assertEquals(creationDate, CarSearch.Sort.CREATION_DATE.valueOf(keys[0]));
+    }
+
+    @Test
+    void productionYearKeys()
+    {
+        Car car = new Car("м626рт96", "Subaru", "Legacy", "gray", 1994, BodyType.WAGON);
+        car.setId(7);
+        assertArrayEquals(new long[]{1994, 7}, CarSearch.Sort.PRODUCTION_YEAR.keysOf(car));
+        assertEquals(1994, CarSearch.Sort.PRODUCTION_YEAR.valueOf(1994));
+        assertArrayEquals(new long[]{7}, CarSearch.Sort.ID.keysOf(car));
+    }
+}
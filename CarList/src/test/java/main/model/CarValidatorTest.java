@@ -0,0 +1,73 @@
+package main.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Calendar;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarValidatorTest {
+
+    private static final Pattern LICENSE_NUMBER =
+            Pattern.compile("^[АВЕКМНОРСТУХавекмнорстух]\\d{3}(?<!000)[АВЕКМНОРСТУХавекмнорстух]{2}\\d{2,3}$");
+
+    @Test
+    void validateLicenseNumber()
+    {
+        assertEquals(CarValidationCode.VALID, CarValidator.validateLicenseNumber("м626рт96"));
+        assertEquals(CarValidationCode.VALID, CarValidator.validateLicenseNumber("М626РТ196"));
+        assertEquals(CarValidationCode.LICENSE_NUMBER_MISSING, CarValidator.validateLicenseNumber(null));
+        assertEquals(CarValidationCode.LICENSE_NUMBER_LENGTH, CarValidator.validateLicenseNumber("м626рт1966"));
+        assertEquals(CarValidationCode.LICENSE_NUMBER_LETTER, CarValidator.validateLicenseNumber("v626рт96"));
+        assertEquals(CarValidationCode.LICENSE_NUMBER_LETTER, CarValidator.validateLicenseNumber("м626бт96"));
+        assertEquals(CarValidationCode.LICENSE_NUMBER_DIGIT, CarValidator.validateLicenseNumber("м6x6рт96"));
+        assertEquals(CarValidationCode.LICENSE_NUMBER_DIGIT, CarValidator.validateLicenseNumber("м626рт9т"));
+        assertEquals(CarValidationCode.LICENSE_NUMBER_ZERO_NUMBER, CarValidator.validateLicenseNumber("м000рт96"));
+    }
+
+    @Test
+    void validateLicenseNumberMatchesRegex()
+    {
+        String alphabet = "АВЕКМНОРСТУХавекмнорстухБбZz0123456789";
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder licenseNumber = new StringBuilder();
+            int length = 7 + random.nextInt(4);
+            for (int j = 0; j < length; j++) {
+                boolean digit = j >= 1 && j <= 3 || j >= 6;
+                licenseNumber.append(random.nextInt(10) == 0
+                        ? alphabet.charAt(random.nextInt(alphabet.length()))
+                        : digit ? (char) ('0' + random.nextInt(random.nextBoolean() ? 1 : 10))
+                        : alphabet.charAt(random.nextInt(24)));
+            }
+            String value = licenseNumber.toString();
+            assertEquals(LICENSE_NUMBER.matcher(value).matches(),
+                    CarValidator.validateLicenseNumber(value) == CarValidationCode.VALID, value);
+        }
+    }
+
+    @Test
+    void validate()
+    {
+        assertEquals(CarValidationCode.VALID,
+                CarValidator.validate(new Car("м626рт96", "Subaru", "Legacy", "gray", 1994, BodyType.WAGON)));
+        assertEquals(CarValidationCode.BRAND_EMPTY,
+                CarValidator.validate(new Car("м626рт96", "", "Legacy", "gray", 1994, BodyType.WAGON)));
+        assertEquals(CarValidationCode.MODEL_EMPTY,
+                CarValidator.validate(new Car("м626рт96", "Subaru", null, "gray", 1994, BodyType.WAGON)));
+        assertEquals(CarValidationCode.COLOUR_EMPTY,
+                CarValidator.validate(new Car("м626рт96", "Subaru", "Legacy", "", 1994, BodyType.WAGON)));
+        assertEquals(CarValidationCode.PRODUCTION_YEAR_TOO_EARLY,
+                CarValidator.validate(new Car("м626рт96", "Subaru", "Legacy", "gray", 994, BodyType.WAGON)));
+        assertEquals(CarValidationCode.PRODUCTION_YEAR_IN_FUTURE,
+                CarValidator.validate(new Car("м626рт96", "Subaru", "Legacy", "gray", 3000, BodyType.WAGON)));
+    }
+
+    @Test
+    void currentYear()
+    {
+        assertEquals(Calendar.getInstance().get(Calendar.YEAR), CarValidator.currentYear());
+    }
+}
@@ -0,0 +1,37 @@
+package main.server;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.AnnotatedGenericBeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.annotation.Lazy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyInitializationTest {
+
+    static class Injected {
+    }
+
+    @Lazy(false)
+    static class Eager {
+    }
+
+    @Lazy
+    static class Lazily {
+    }
+
+    @Test
+    void marksBeansLazyUnlessDeclaredEager()
+    {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("injected", new AnnotatedGenericBeanDefinition(Injected.class));
+        beanFactory.registerBeanDefinition("eager", new AnnotatedGenericBeanDefinition(Eager.class));
+        beanFactory.registerBeanDefinition("lazily", new AnnotatedGenericBeanDefinition(Lazily.class));
+
+        new LazyInitialization.LazyBeans().postProcessBeanFactory(beanFactory);
+
+        assertTrue(beanFactory.getBeanDefinition("injected").isLazyInit());
+        assertFalse(beanFactory.getBeanDefinition("eager").isLazyInit());
+        assertTrue(beanFactory.getBeanDefinition("lazily").isLazyInit());
+    }
+}
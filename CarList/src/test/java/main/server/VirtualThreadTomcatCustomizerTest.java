@@ -0,0 +1,29 @@
+package main.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadTomcatCustomizerTest {
+
+    @Test
+    void runsTasksOnNamedVirtualThreadsFromJava21() throws Exception
+    {
+        if (Runtime.version().feature() < 21) {
+            assertThrows(IllegalStateException.class,
+                    () -> VirtualThreadTomcatCustomizer.newVirtualThreadPerTaskExecutor("test-"));
+            return;
+        }
+        ExecutorService executor = VirtualThreadTomcatCustomizer.newVirtualThreadPerTaskExecutor("test-");
+        try {
+            String thread = executor.submit(() -> Thread.currentThread().toString()).get();
+            assertTrue(thread.startsWith("VirtualThread[#"), thread);
+            assertTrue(thread.contains(",test-0]"), thread);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package main.server;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import main.model.BodyType;
+import main.model.Car;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireFormatsTest {
+
+    private static List<Car> cars()
+    {
+        List<Car> cars = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Car car = new Car(String.format("м%03dрт96", i + 1), "Subaru", "Legacy", "gray", 1994, BodyType.WAGON);
+            car.setId(i + 1);
+            cars.add(car);
+        }
+        return cars;
+    }
+
+    @Test
+    void smileReadsBackTheCarsAndWritesRepeatedValuesOnce() throws IOException
+    {
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        ObjectMapper smile = Jackson2ObjectMapperBuilder.json().factory(WireFormats.smileFactory()).build();
+        List<Car> cars = cars();
+
+        byte[] smileBytes = smile.writeValueAsBytes(cars);
+        List<Car> read = smile.readValue(smileBytes, new TypeReference<List<Car>>() {});
+
+        assertEquals(cars.size(), read.size());
+        assertEquals(cars.get(42).getLicenseNumber(), read.get(42).getLicenseNumber());
+        assertEquals(BodyType.WAGON, read.get(42).getBodyType());
+        assertEquals(cars.get(42).getCreationDate(), read.get(42).getCreationDate());
+        assertTrue(smileBytes.length * 2 < json.writeValueAsBytes(cars).length);
+    }
+}
@@ -0,0 +1,27 @@
+package main.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkLoadReportTest {
+
+    @Test
+    void listsTheFirstFailuresAndCountsThemAll()
+    {
+        BulkLoadReport report = new BulkLoadReport(2);
+        for (int line = 1; line <= 5; line++) {
+            report.received();
+            report.failed(line, "м00" + line + "рт96", "WRONG_LICENSE_NUMBER");
+        }
+        report.inserted(3);
+
+        assertEquals(5, report.getReceived());
+        assertEquals(3, report.getInserted());
+        assertEquals(5, report.getFailed());
+        assertEquals(2, report.getFailures().size());
+        assertEquals(1, report.getFailures().get(0).getLine());
+        assertEquals(2, report.getFailures().get(1).getLine());
+        assertThrows(UnsupportedOperationException.class, () -> report.getFailures().clear());
+    }
+}
@@ -0,0 +1,100 @@
+package main.services;
+
+import main.controllers.CarCsv;
+import main.model.BodyType;
+import main.model.Car;
+import main.model.CarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CarBulkLoaderTest {
+
+    @Autowired
+    private CarBulkLoader carBulkLoader;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clear()
+    {
+        jdbcTemplate.update("delete from cars");
+    }
+
+    private BulkLoadReport load(String csv) throws IOException
+    {
+        return carBulkLoader.load(new BufferedReader(new StringReader(csv)), CarCsv::parse, true);
+    }
+
+    @Test
+    void reportsBadRowsByLineAndInsertsTheRest() throws IOException
+    {
+        BulkLoadReport report = load(CarCsv.HEADER + "\n"
+                + ",м001рт96,Subaru,Legacy,gray,1994,WAGON,\n"
+                + ",м002рт96,\"Subaru,Legacy,gray,1994,WAGON,\n"
+                + "\n"
+                + ",м003рт96,Subaru,Legacy,gray,1994,WAGON,\n"
+                + ",м001рт96,Nissan,Wingroad,white,2001,WAGON,\n"
+                + ",bad,Subaru,Legacy,gray,1994,WAGON,\n"
+                + ",м004рт96,Subaru,Legacy,gray,1994,WAGON,\n");
+
+        assertEquals(6, report.getReceived());
+        assertEquals(3, report.getInserted());
+        assertEquals(3, report.getFailed());
+        List<Long> lines = report.getFailures().stream().map(BulkLoadReport.Failure::getLine).collect(Collectors.toList());
+        assertEquals(List.of(3L, 7L, 6L), lines);
+        assertEquals("malformed row", report.getFailures().get(0).getReason());
+        assertEquals("duplicate licenseNumber in request", report.getFailures().get(2).getReason());
+        assertEquals(3, carRepository.count());
+    }
+
+    @Test
+    void reportsLicenseNumbersAlreadyRegistered() throws IOException
+    {
+        load(CarCsv.HEADER + "\n,м001рт96,Subaru,Legacy,gray,1994,WAGON,\n");
+
+        BulkLoadReport report = load(CarCsv.HEADER + "\n"
+                + ",м001рт96,Nissan,Wingroad,white,2001,WAGON,\n"
+                + ",м002рт96,Nissan,Wingroad,white,2001,WAGON,\n");
+
+        assertEquals(1, report.getInserted());
+        assertEquals(2, report.getFailures().get(0).getLine());
+        assertEquals("licenseNumber already registered", report.getFailures().get(0).getReason());
+        assertEquals(2, carRepository.count());
+    }
+
+    @Test
+    void loadsExportedCarsWithLineBreaksBack() throws IOException
+    {
+        Car car = new Car("м005рт96", "Lada\nNiva", "2121\r\nTaiga", "white", 1994, BodyType.SUV);
+        car.setId(5);
+        StringBuilder export = new StringBuilder(CarCsv.HEADER).append('\n');
+        CarCsv.write(car, export);
+
+        BulkLoadReport report = load(export.toString());
+
+        assertEquals(1, report.getReceived());
+        assertEquals(1, report.getInserted());
+        Car loaded = carRepository.findAllByOrderByIdAsc(PageRequest.of(0, 1)).get(0);
+        assertEquals("Lada Niva", loaded.getBrand());
+        assertEquals("2121 Taiga", loaded.getModel());
+    }
+}
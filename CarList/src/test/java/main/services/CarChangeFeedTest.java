@@ -0,0 +1,171 @@
+package main.services;
+
+import main.model.BodyType;
+import main.model.Car;
+import main.model.CarChange;
+import main.model.CarChangeLog;
+import main.model.CarChangeRepository;
+import main.model.CarKeys;
+import main.model.CarRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CarChangeFeedTest {
+
+    private static final int UPDATES = 50;
+
+    @Autowired
+    private CarChangeFeed carChangeFeed;
+
+    @Autowired
+    private CarChangeLog carChangeLog;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deliversConcurrentWritesInPositionOrderWithoutGaps() throws Exception
+    {
+        jdbcTemplate.update("delete from cars");
+        Car first = carRepository.save(new Car("м001рт96", "Subaru", "Legacy", "gray", 1994, BodyType.WAGON));
+        Car second = carRepository.save(new Car("м002рт96", "Nissan", "Skyline", "gray", 1994, BodyType.SEDAN));
+        long start = jdbcTemplate.queryForObject("select coalesce(max(seq), 0) from car_changes", Long.class);
+
+        List<CarChange> received = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<CarChangeFeed.Subscription> subscription = new AtomicReference<>();
+        follow(start, received, done, subscription);
+
+        ExecutorService writers = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (Car car : List.of(first, second)) {
+                writes.add(writers.submit(() -> {
+                    for (int i = 0; i < UPDATES; i++) {
+                        String colour = i % 2 == 0 ? "white" : "gray";
+                        carChangeLog.update(car.getId(), () -> carRepository.updateColour(car.getId(), colour,
+                                CarKeys.colour(colour), CarRepository.ANY_VERSION));
+                    }
+                }));
+            }
+            for (Future<?> write : writes) {
+                write.get(30, TimeUnit.SECONDS);
+            }
+            assertTrue(done.await(30, TimeUnit.SECONDS));
+        }
+        finally {
+            writers.shutdownNow();
+            carChangeFeed.cancel(subscription.get());
+        }
+
+        synchronized (received) {
+            assertEquals(2 * UPDATES, received.size());
+            long[] lastVersions = new long[2];
+            for (int i = 0; i < received.size(); i++) {
+                CarChange change = received.get(i);
+                assertEquals(start + i + 1, change.getSeq());
+                int writer = change.getCarId() == first.getId() ? 0 : 1;
+                assertTrue(change.getVersion() > lastVersions[writer]);
+                lastVersions[writer] = change.getVersion();
+            }
+        }
+    }
+
+    @Test
+    void endsTheSubscriptionsNoDeliveryThreadCanTake() throws Exception
+    {
+        CarChangeRepository changes = new CarChangeRepository()
+        {
+            @Override
+            public List<CarChange> findBySeqGreaterThanOrderBySeqAsc(long seq, Pageable pageable)
+            {
+                return List.of(new CarChange());
+            }
+
+            @Override
+            public Long findLastSeq()
+            {
+                return 10L;
+            }
+        };
+        JdbcDataSource dataSource = new JdbcDataSource();
+        CarChangeFeed feed = new CarChangeFeed(changes,
+                new CarChangeLog(dataSource, new DataSourceTransactionManager(dataSource)),
+                500, Duration.ofHours(1), 1, 1, new SimpleMeterRegistry());
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch ended = new CountDownLatch(1);
+        AtomicInteger consumed = new AtomicInteger();
+        AtomicInteger endedCount = new AtomicInteger();
+        try {
+            for (long after = 0; after < 3; after++) {
+                feed.subscribe(after, batch -> {
+                    try {
+                        release.await();
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    consumed.incrementAndGet();
+                }, () -> {
+                    endedCount.incrementAndGet();
+                    ended.countDown();
+                });
+            }
+            assertTrue(ended.await(10, TimeUnit.SECONDS));
+            release.countDown();
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (consumed.get() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(2, consumed.get());
+            assertEquals(1, endedCount.get());
+        }
+        finally {
+            release.countDown();
+            feed.close();
+        }
+    }
+
+    /**
+     * Subscribes again after every batch, as a client of the feed does, until all updates arrived.
+     */
+    private void follow(long after, List<CarChange> received, CountDownLatch done,
+                        AtomicReference<CarChangeFeed.Subscription> subscription)
+    {
+        subscription.set(carChangeFeed.subscribe(after, changes -> {
+            synchronized (received) {
+                received.addAll(changes);
+                if (received.size() >= 2 * UPDATES) {
+                    done.countDown();
+                    return;
+                }
+            }
+            follow(changes.get(changes.size() - 1).getSeq(), received, done, subscription);
+        }, () -> follow(after, received, done, subscription)));
+    }
+}
@@ -0,0 +1,65 @@
+package main.services;
+
+import main.model.CarPlates;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarPlateIndexTest {
+
+    private static List<Integer> ids(List<PlateMatch> matches)
+    {
+        return matches.stream().map(PlateMatch::getId).collect(Collectors.toList());
+    }
+
+    private static CarPlateIndex.Plates plates()
+    {
+        CarPlateIndex.Plates plates = new CarPlateIndex.Plates();
+        plates.put(1, "м626рт96");
+        plates.put(2, "м626рт196");
+        plates.put(3, "м627рт96");
+        plates.put(4, "а626рт96");
+        plates.put(5, "м626ра77");
+        plates.put(6, "not a plate");
+        return plates;
+    }
+
+    @Test
+    void findsByPrefixAndRegionInPlateOrder()
+    {
+        CarPlateIndex.Plates plates = plates();
+
+        assertEquals(List.of(5, 2, 1), ids(plates.byPrefix(CarPlates.range("м626"), -1, 10)));
+        assertEquals(List.of(5, 2), ids(plates.byPrefix(CarPlates.range("м626"), -1, 2)));
+        assertEquals(List.of(4, 1, 3), ids(plates.byPrefix(CarPlates.range(""), CarPlates.region("96"), 10)));
+        assertEquals("М626РТ196", plates.byPrefix(CarPlates.range("м626рт1"), -1, 10).get(0).getLicenseNumber());
+    }
+
+    @Test
+    void findsPlatesOneEditAway()
+    {
+        CarPlateIndex.Plates plates = plates();
+
+        assertEquals(List.of(4, 2, 1, 3), ids(plates.near(CarPlates.withinOneEdit("м626рт96"), -1, 10)));
+        assertEquals(List.of(4, 1, 3), ids(plates.near(CarPlates.withinOneEdit("м626рт96"), CarPlates.region("96"), 10)));
+    }
+
+    @Test
+    void updatesAndRemovesKeepCarsSharingACode()
+    {
+        CarPlateIndex.Plates plates = plates();
+        plates.put(7, "М626РТ96");
+        plates.put(3, "х111хх11");
+        plates.remove(5);
+
+        assertEquals(List.of(2, 1, 7), ids(plates.byPrefix(CarPlates.range("м626"), -1, 10)));
+        plates.remove(1);
+        assertEquals(List.of(2, 7), ids(plates.byPrefix(CarPlates.range("м626"), -1, 10)));
+        plates.remove(7);
+        assertEquals(List.of(2), ids(plates.byPrefix(CarPlates.range("м626"), -1, 10)));
+        assertEquals(List.of(3), ids(plates.byPrefix(CarPlates.range("х"), -1, 10)));
+    }
+}
@@ -0,0 +1,102 @@
+package main.services;
+
+import main.model.BodyType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarSnapshotTest {
+
+    private static final int TOYOTA = 1;
+
+    private static final int LADA = 2;
+
+    private static final int BLACK = 10;
+
+    private static final int WHITE = 11;
+
+    private static CarSnapshot.Row row(int id, int brandKey, int colourKey, int productionYear, long creationDate)
+    {
+        return row(id, brandKey, colourKey, productionYear, creationDate, 0);
+    }
+
+    private static CarSnapshot.Row row(int id, int brandKey, int colourKey, int productionYear, long creationDate,
+                                       long version)
+    {
+        return new CarSnapshot.Row(id, "a" + id + "aa77", brandKey, brandKey, 100, colourKey, colourKey,
+                productionYear, BodyType.SEDAN, creationDate, version);
+    }
+
+    @Test
+    void idsByYearFollowTheCursor()
+    {
+        CarSnapshot.Columns columns = new CarSnapshot.Columns();
+        columns.put(row(5, TOYOTA, BLACK, 2001, 50));
+        columns.put(row(3, TOYOTA, BLACK, 1999, 30));
+        columns.put(row(4, LADA, WHITE, 2001, 40));
+        columns.put(row(1, LADA, WHITE, 2010, 10));
+
+        assertArrayEquals(new int[]{3, 4, 5, 1}, columns.idsByYearAfter(Integer.MIN_VALUE, -1, 10));
+        assertArrayEquals(new int[]{3, 4}, columns.idsByYearAfter(Integer.MIN_VALUE, -1, 2));
+        assertArrayEquals(new int[]{5, 1}, columns.idsByYearAfter(2001, 4, 2));
+        assertArrayEquals(new int[]{1}, columns.idsByYearAfter(2001, 5, 2));
+        assertArrayEquals(new int[0], columns.idsByYearAfter(2010, 1, 2));
+    }
+
+    @Test
+    void updatesAndRemovesMoveTheIndexes()
+    {
+        CarSnapshot.Columns columns = new CarSnapshot.Columns();
+        columns.put(row(1, TOYOTA, BLACK, 2001, 10));
+        columns.put(row(2, TOYOTA, BLACK, 2002, 20));
+        columns.put(row(3, LADA, WHITE, 2003, 30));
+
+        columns.put(row(2, LADA, WHITE, 2002, 20, 1));
+        assertArrayEquals(new int[]{1}, columns.matching(TOYOTA, null, null).toArray());
+        assertArrayEquals(new int[]{2, 3}, columns.matching(null, WHITE, null).toArray());
+        assertArrayEquals(new int[]{2}, columns.matching(LADA, WHITE, 2002).toArray());
+        assertArrayEquals(new int[0], columns.matching(LADA, BLACK, null).toArray());
+
+        columns.remove(3);
+        columns.remove(3);
+        columns.put(row(4, TOYOTA, WHITE, 2004, 40));
+        assertArrayEquals(new int[]{1, 2, 4}, columns.matching(null, null, null).toArray());
+        assertArrayEquals(new int[]{2, 4}, columns.matching(null, WHITE, null).toArray());
+    }
+
+    @Test
+    void writesAppliedOutOfOrderKeepTheLatestState()
+    {
+        CarSnapshot.Columns columns = new CarSnapshot.Columns();
+        columns.put(row(1, TOYOTA, BLACK, 2001, 10));
+        columns.put(row(2, TOYOTA, BLACK, 2002, 20));
+
+        columns.put(row(1, TOYOTA, WHITE, 2001, 10, 2));
+        columns.put(row(1, LADA, BLACK, 2001, 10, 1));
+        columns.put(row(1, TOYOTA, BLACK, 2001, 10));
+        assertArrayEquals(new int[]{1}, columns.matching(TOYOTA, WHITE, null).toArray());
+
+        columns.remove(2);
+        columns.put(row(2, TOYOTA, BLACK, 2002, 20, 1));
+        columns.put(row(2, TOYOTA, BLACK, 2002, 20));
+        assertArrayEquals(new int[]{1}, columns.matching(null, null, null).toArray());
+        assertEquals(1, columns.lastCreatedId());
+    }
+
+    @Test
+    void tracksFirstAndLastCreated()
+    {
+        CarSnapshot.Columns columns = new CarSnapshot.Columns();
+        columns.put(row(1, TOYOTA, BLACK, 2001, 20));
+        columns.put(row(2, TOYOTA, BLACK, 2001, 10));
+        columns.put(row(3, TOYOTA, BLACK, 2001, 30));
+        columns.put(row(4, TOYOTA, BLACK, 2001, 30));
+        assertEquals(2, columns.firstCreatedId());
+        assertEquals(4, columns.lastCreatedId());
+
+        columns.remove(2);
+        columns.remove(4);
+        assertEquals(1, columns.firstCreatedId());
+        assertEquals(3, columns.lastCreatedId());
+    }
+}
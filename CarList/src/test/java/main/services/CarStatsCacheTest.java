@@ -0,0 +1,35 @@
+package main.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import main.model.CarStats;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarStatsCacheTest {
+
+    @Test
+    void sharesAnEntryBetweenSpellingsOfTheSameFilter()
+    {
+        CarStatsCache cache = new CarStatsCache(10, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+
+        CarStats stats = cache.get("Subaru", "GRAY", 1994, 5, () -> {
+            loads.incrementAndGet();
+            return new CarStats(5);
+        });
+        assertSame(stats, cache.get(" subaru", "gray", 1994, 5, () -> {
+            loads.incrementAndGet();
+            return new CarStats(5);
+        }));
+        cache.get("Subaru", "gray", 1995, 5, () -> {
+            loads.incrementAndGet();
+            return new CarStats(5);
+        });
+
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,24 @@
+package main.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowIndexTest {
+
+    @Test
+    void keepsProbedIdsReachableAfterRemoval()
+    {
+        RowIndex index = new RowIndex();
+        for (int id = 1; id <= 10_000; id++) {
+            index.put(id, id * 2);
+        }
+        for (int id = 1; id <= 10_000; id += 3) {
+            assertEquals(id * 2, index.remove(id));
+        }
+        for (int id = 1; id <= 10_000; id++) {
+            assertEquals(id % 3 == 1 ? RowIndex.NONE : id * 2, index.get(id));
+        }
+        assertEquals(RowIndex.NONE, index.remove(1));
+    }
+}
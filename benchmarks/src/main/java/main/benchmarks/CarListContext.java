@@ -0,0 +1,98 @@
+package main.benchmarks;
+
+import main.Main;
+import main.model.CarDictionaries;
+import main.model.CarKeys;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Boots the CarList application against an embedded H2 database in MySQL mode
+ * and seeds it with {@link SyntheticCars}.
+ */
+public final class CarListContext
+{
+    private static final int SEED_BATCH_SIZE = 5_000;
+
+    private static final int ID_MARGIN = 10_000;
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private CarListContext() {}
+
+    /**
+     * Starts the application on a fresh in-memory database.
+     * <p>
+     * The benchmark profile is activated last, so its database replaces the one of the other
+     * profiles; H2 ignores the MySQL driver settings they may set.
+     *
+     * @param profiles the profiles activated in addition to the benchmark profile
+     * @return the application context
+     */
+    public static ConfigurableApplicationContext start(String... profiles)
+    {
+        String[] allProfiles = Arrays.copyOf(profiles, profiles.length + 1);
+        allProfiles[profiles.length] = "benchmark";
+        return new SpringApplicationBuilder(Main.class)
+                .web(WebApplicationType.NONE)
+                .profiles(allProfiles)
+                .properties("benchmark.database=cars" + DATABASES.incrementAndGet())
+                .run();
+    }
+
+    /**
+     * Seeds the cars table with the given number of synthetic rows.
+     *
+     * @param context the application context
+     * @param rows    the number of rows
+     */
+    public static void seed(ConfigurableApplicationContext context, int rows)
+    {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        CarDictionaries dictionaries = context.getBean(CarDictionaries.class);
+        long now = System.currentTimeMillis();
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{
+                    i + 1,
+                    SyntheticCars.licenseNumber(i),
+                    dictionaries.brands().id(SyntheticCars.brand(i, rows)),
+                    dictionaries.brands().id(CarKeys.brand(SyntheticCars.brand(i, rows))),
+                    dictionaries.models().id(SyntheticCars.model(i)),
+                    dictionaries.colours().id(SyntheticCars.colour(i, rows)),
+                    dictionaries.colours().id(CarKeys.colour(SyntheticCars.colour(i, rows))),
+                    SyntheticCars.productionYear(i),
+                    SyntheticCars.bodyType(i).name(),
+                    new Timestamp(now - (rows - i) * 1000L),
+                    0L
+            });
+            if (batch.size() == SEED_BATCH_SIZE || i == rows - 1) {
+                jdbcTemplate.batchUpdate("insert into cars "
+                        + "(id, license_number, brand_id, brand_key_id, model_id, colour_id, colour_key_id, production_year,"
+                        + " body_type, creation_date, version) "
+                        + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        reserveIds(jdbcTemplate, rows);
+    }
+
+    /**
+     * Moves the car id generator past the seeded ids, leaving a margin for its pooled block.
+     */
+    private static void reserveIds(JdbcTemplate jdbcTemplate, int rows)
+    {
+        int nextId = rows + ID_MARGIN;
+        if (jdbcTemplate.update("update id_generators set next_val = ? where sequence_name = 'cars'", nextId) == 0) {
+            jdbcTemplate.update("insert into id_generators (sequence_name, next_val) values ('cars', ?)", nextId);
+        }
+    }
+}
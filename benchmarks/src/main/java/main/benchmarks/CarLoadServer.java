@@ -0,0 +1,39 @@
+package main.benchmarks;
+
+import main.Main;
+import main.server.VirtualThreadTomcatCustomizer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.util.Arrays;
+
+/**
+ * Serves the CarList application on an H2 database in MySQL mode seeded with
+ * {@link SyntheticCars}, as the target of a {@link CarLoadTest} or a {@link CarWorkload}.
+ * The load-test profile gives it the connection pool of the production profile.
+ */
+public final class CarLoadServer
+{
+    private CarLoadServer() {}
+
+    /**
+     * Starts the server and seeds its database.
+     *
+     * @param args the number of rows, 100k by default, followed by application arguments
+     *             such as {@code --cars.server.virtual-threads=true}
+     */
+    public static void main(String[] args)
+    {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        String[] applicationArgs = args.length > 0 ? Arrays.copyOfRange(args, 1, args.length) : args;
+        ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                new SpringApplicationBuilder(Main.class)
+                        .profiles("load-test", "benchmark")
+                        .properties("benchmark.database=load")
+                        .run(applicationArgs);
+        CarListContext.seed(context, rows);
+        boolean virtualThreads = !context.getBeansOfType(VirtualThreadTomcatCustomizer.class).isEmpty();
+        System.out.printf("serving %,d cars on port %d with %s threads%n",
+                rows, context.getWebServer().getPort(), virtualThreads ? "virtual" : "platform");
+    }
+}
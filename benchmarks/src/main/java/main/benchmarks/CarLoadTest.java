@@ -0,0 +1,157 @@
+package main.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load test of a running CarList server, see {@link CarLoadServer}.
+ * <p>
+ * For each concurrency level, keeps that many requests in flight, each connection sending
+ * its next request as soon as the previous response arrived: first for a warm-up, then for
+ * the measured period. Prints the throughput, the median and 99th percentile latencies
+ * and the number of failed requests of the measured period. Requests are sent
+ * asynchronously, so the client only needs a few threads whatever the concurrency.
+ */
+public final class CarLoadTest
+{
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final Duration RETRY_DELAY = Duration.ofMillis(100);
+
+    private static final int MAX_LATENCY_MILLIS = 60_000;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final HttpRequest request;
+
+    private CarLoadTest(URI uri)
+    {
+        request = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+
+    /**
+     * Runs the load test.
+     *
+     * @param args the base URL of the server, http://localhost:8080 by default, the
+     *             comma-separated concurrency levels, 1000,2000,5000,10000 by default, the
+     *             measured seconds per level, 20 by default, and the requested path,
+     *             /cars/search?colour=black&amp;limit=20 by default
+     * @throws InterruptedException if interrupted
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        String levels = args.length > 1 ? args[1] : "1000,2000,5000,10000";
+        Duration period = Duration.ofSeconds(args.length > 2 ? Integer.parseInt(args[2]) : 20);
+        String path = args.length > 3 ? args[3] : "/cars/search?colour=black&limit=20";
+
+        CarLoadTest loadTest = new CarLoadTest(URI.create(baseUrl + path));
+        System.out.printf("%s, %ds per level after %ds of warm-up%n",
+                baseUrl + path, period.getSeconds(), WARMUP.getSeconds());
+        System.out.printf("%12s %12s %8s %8s %8s%n", "concurrency", "requests/s", "p50 ms", "p99 ms", "errors");
+        for (String level : levels.split(",")) {
+            int concurrency = Integer.parseInt(level.trim());
+            Result result = loadTest.run(concurrency, period);
+            System.out.printf("%12d %12.1f %8d %8d %8d%n", concurrency,
+                    result.completed.sum() / (double) period.getSeconds(),
+                    result.percentile(0.50), result.percentile(0.99), result.errors.sum());
+        }
+    }
+
+    private Result run(int concurrency, Duration period) throws InterruptedException
+    {
+        long measureFrom = System.nanoTime() + WARMUP.toNanos();
+        Result result = new Result(measureFrom, measureFrom + period.toNanos());
+        CountDownLatch stopped = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            send(result, stopped);
+        }
+        stopped.await(WARMUP.plus(period).plus(REQUEST_TIMEOUT).getSeconds() * 2, TimeUnit.SECONDS);
+        return result;
+    }
+
+    /**
+     * Sends a request, then the next one once it completed until the end of the measured period.
+     */
+    private void send(Result result, CountDownLatch stopped)
+    {
+        long start = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            long end = System.nanoTime();
+            boolean failed = error != null || response.statusCode() >= 400;
+            result.record(start, end, failed);
+            if (end - result.measureUntil >= 0) {
+                stopped.countDown();
+            }
+            else if (failed) {
+                CompletableFuture.runAsync(() -> send(result, stopped),
+                        CompletableFuture.delayedExecutor(RETRY_DELAY.toMillis(), TimeUnit.MILLISECONDS));
+            }
+            else {
+                send(result, stopped);
+            }
+        });
+    }
+
+    /**
+     * Requests completed in the measured period, with a histogram of their latencies in milliseconds.
+     */
+    private static final class Result
+    {
+        private final long measureFrom;
+
+        private final long measureUntil;
+
+        private final LongAdder completed = new LongAdder();
+
+        private final LongAdder errors = new LongAdder();
+
+        private final AtomicLongArray latencies = new AtomicLongArray(MAX_LATENCY_MILLIS + 1);
+
+        private Result(long measureFrom, long measureUntil)
+        {
+            this.measureFrom = measureFrom;
+            this.measureUntil = measureUntil;
+        }
+
+        private void record(long start, long end, boolean failed)
+        {
+            if (end - measureFrom < 0 || end - measureUntil >= 0) {
+                return;
+            }
+            if (failed) {
+                errors.increment();
+                return;
+            }
+            completed.increment();
+            long millis = TimeUnit.NANOSECONDS.toMillis(end - start);
+            latencies.incrementAndGet((int) Math.min(millis, MAX_LATENCY_MILLIS));
+        }
+
+        private long percentile(double fraction)
+        {
+            long rank = (long) Math.ceil(completed.sum() * fraction);
+            long seen = 0;
+            for (int millis = 0; millis < latencies.length(); millis++) {
+                seen += latencies.get(millis);
+                if (seen >= rank && seen > 0) {
+                    return millis;
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package main.benchmarks;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import main.logging.SampledSuccessFilter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static main.logging.SampledSuccessFilter.SUCCESS;
+
+/**
+ * Throughput of the controller success lines from several request threads, written
+ * to a file synchronously, through the async queue of {@code logback-spring.xml},
+ * and through the queue with success sampling.
+ * <p>
+ * The async appender never blocks, so once its queue is full the extra lines are dropped:
+ * the async scores are the rate request threads get, not the rate of lines on disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class CarLoggingBenchmark
+{
+    /**
+     * The appenders behind the logger.
+     */
+    public enum Appenders
+    {
+        /**
+         * A file appender on the request thread.
+         */
+        SYNC,
+        /**
+         * The file appender behind an async queue.
+         */
+        ASYNC,
+        /**
+         * The async queue, keeping one success line in 100.
+         */
+        ASYNC_SAMPLED
+    }
+
+    private static final String FILE_PATTERN = "%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n";
+
+    @Param
+    private Appenders appenders;
+
+    private LoggerContext context;
+
+    private Logger logger;
+
+    private Path file;
+
+    /**
+     * Builds the logger context.
+     *
+     * @throws IOException if the log file cannot be created
+     */
+    @Setup
+    public void setUp() throws IOException
+    {
+        file = Files.createTempFile("cars", ".log");
+        context = new LoggerContext();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(FILE_PATTERN);
+        encoder.start();
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+        fileAppender.setContext(context);
+        fileAppender.setFile(file.toString());
+        fileAppender.setEncoder(encoder);
+        fileAppender.start();
+
+        Appender<ILoggingEvent> appender = fileAppender;
+        if (appenders != Appenders.SYNC) {
+            AsyncAppender asyncAppender = new AsyncAppender();
+            asyncAppender.setContext(context);
+            asyncAppender.setQueueSize(8192);
+            asyncAppender.setNeverBlock(true);
+            asyncAppender.addAppender(fileAppender);
+            asyncAppender.start();
+            appender = asyncAppender;
+        }
+        if (appenders == Appenders.ASYNC_SAMPLED) {
+            SampledSuccessFilter filter = new SampledSuccessFilter();
+            filter.setRate(100);
+            filter.start();
+            context.addTurboFilter(filter);
+        }
+        logger = context.getLogger("main.controllers.CarController");
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+    }
+
+    /**
+     * Stops the logger context and removes the log file.
+     *
+     * @throws IOException if the log file cannot be removed
+     */
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        context.stop();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * A success line built by concatenation.
+     */
+    @Benchmark
+    public void concatenated()
+    {
+        logger.info("getCar:success, requested id:" + ThreadLocalRandom.current().nextInt(1_000_000));
+    }
+
+    /**
+     * A parameterised success line.
+     */
+    @Benchmark
+    public void parameterised()
+    {
+        logger.info(SUCCESS, "getCar:success, requested id:{}", ThreadLocalRandom.current().nextInt(1_000_000));
+    }
+
+    /**
+     * A disabled line built by concatenation.
+     */
+    @Benchmark
+    public void disabledConcatenated()
+    {
+        logger.debug("getCar:success, requested id:" + ThreadLocalRandom.current().nextInt(1_000_000));
+    }
+
+    /**
+     * A disabled parameterised line.
+     */
+    @Benchmark
+    public void disabledParameterised()
+    {
+        logger.debug("getCar:success, requested id:{}", ThreadLocalRandom.current().nextInt(1_000_000));
+    }
+}
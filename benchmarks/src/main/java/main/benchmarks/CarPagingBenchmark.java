@@ -0,0 +1,79 @@
+package main.benchmarks;
+
+import main.controllers.CarCursor;
+import main.model.Car;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * First page against a page near the end of the table, for both keyset-paged endpoints.
+ * <p>
+ * With keyset cursors both pages are an index range scan of {@link #LIMIT} rows,
+ * so the deep page should score like the first one.
+ */
+public class CarPagingBenchmark extends SeededCarListBenchmark
+{
+    private static final int LIMIT = 100;
+
+    private String deepIdCursor;
+
+    private String deepYearCursor;
+
+    /**
+     * Builds cursors pointing near the end of the table.
+     */
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        deepIdCursor = CarCursor.of(rows - LIMIT * 2).encode();
+        deepYearCursor = CarCursor.of(SyntheticCars.productionYear(rows - 1), rows - LIMIT * 2).encode();
+    }
+
+    /**
+     * Car list, first page.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<List<Car>> carListFirstPage()
+    {
+        return carController.carList(LIMIT, null, null);
+    }
+
+    /**
+     * Car list, page near the end of the table.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<List<Car>> carListDeepPage()
+    {
+        return carController.carList(LIMIT, deepIdCursor, null);
+    }
+
+    /**
+     * Cars sorted by year, first page.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<List<Car>> sortedByYearFirstPage()
+    {
+        return carController.getCarsSortedByYear(LIMIT, null, null);
+    }
+
+    /**
+     * Cars sorted by year, page near the end of the table.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<List<Car>> sortedByYearDeepPage()
+    {
+        return carController.getCarsSortedByYear(LIMIT, deepYearCursor, null);
+    }
+}
@@ -0,0 +1,45 @@
+package main.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import main.model.Car;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Prints the size of a {@code List<Car>} response body in each encoding of
+ * {@link CarSerializationBenchmark}, as written and once compressed with gzip.
+ */
+public final class CarPayloadReport
+{
+    private static final String[] FORMATS = {"json", "smile", "cbor"};
+
+    private CarPayloadReport() {}
+
+    /**
+     * Prints the sizes.
+     *
+     * @param args the list sizes, 100, 1000 and 10000 by default
+     * @throws IOException if serialisation fails
+     */
+    public static void main(String[] args) throws IOException
+    {
+        String[] sizes = args.length > 0 ? args : new String[]{"100", "1000", "10000"};
+        for (String size : sizes) {
+            List<Car> cars = CarSerializationBenchmark.cars(Integer.parseInt(size));
+            for (String format : FORMATS) {
+                ObjectWriter writer = CarSerializationBenchmark.writer(format);
+                byte[] bytes = writer.writeValueAsBytes(cars);
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                    gzip.write(bytes);
+                }
+                System.out.printf("%6s cars %-6s %,12d bytes %,8.1f bytes/car, gzip %,10d bytes %,6.1f bytes/car%n",
+                        size, format, bytes.length, (double) bytes.length / cars.size(),
+                        compressed.size(), (double) compressed.size() / cars.size());
+            }
+        }
+    }
+}
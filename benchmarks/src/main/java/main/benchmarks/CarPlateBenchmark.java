@@ -0,0 +1,90 @@
+package main.benchmarks;
+
+import main.services.CarPlateIndex;
+import main.services.PlateMatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * License number lookups answered by the {@link CarPlateIndex}, loaded once the table is
+ * seeded, next to the same prefix lookup answered by the database with {@code LIKE}.
+ */
+public class CarPlateBenchmark extends SeededCarListBenchmark
+{
+    private static final int LIMIT = 100;
+
+    private String plate;
+
+    private String prefix;
+
+    private String region;
+
+    private String typo;
+
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Loads the index and picks a plate of the middle of the table.
+     */
+    @Override
+    protected void seeded()
+    {
+        context.getBean(CarPlateIndex.class).load();
+        jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        plate = SyntheticCars.licenseNumber(rows / 2);
+        prefix = plate.substring(0, 4);
+        region = plate.substring(6);
+        typo = plate.substring(0, 2) + (plate.charAt(2) == '9' ? '0' : (char) (plate.charAt(2) + 1)) + plate.substring(3);
+    }
+
+    /**
+     * Plates starting with a letter and number.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<List<PlateMatch>> findByPrefix()
+    {
+        return carController.findCarsByLicenseNumber(prefix, null, false, LIMIT);
+    }
+
+    /**
+     * Plates starting with a letter and number, in one region.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<List<PlateMatch>> findByPrefixInRegion()
+    {
+        return carController.findCarsByLicenseNumber(prefix, region, false, LIMIT);
+    }
+
+    /**
+     * Plates one edit away from a mistyped plate.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<List<PlateMatch>> findNear()
+    {
+        return carController.findCarsByLicenseNumber(typo, null, true, LIMIT);
+    }
+
+    /**
+     * Plates starting with a letter and number, read from the database.
+     *
+     * @return the rows
+     */
+    @Benchmark
+    public List<Map<String, Object>> findByPrefixFromDatabase()
+    {
+        return jdbcTemplate.queryForList(
+                "select id, license_number from cars where license_number like ? order by license_number limit ?",
+                prefix + "%", LIMIT);
+    }
+}
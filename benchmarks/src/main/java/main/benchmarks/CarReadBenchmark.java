@@ -0,0 +1,108 @@
+package main.benchmarks;
+
+import main.model.Car;
+import main.model.CarStats;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * The read paths of {@link main.controllers.CarController} over tables of growing size.
+ * <p>
+ * Filters select a value matching {@link SyntheticCars#RARE_ROWS} rows at every size
+ * and lists read the default page, so index-backed reads keep the same score from
+ * 10k to 1M rows.
+ */
+public class CarReadBenchmark extends SeededCarListBenchmark
+{
+    private static final int LIMIT = 100;
+
+    /**
+     * Car list, first page.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<List<Car>> carList()
+    {
+        return carController.carList(LIMIT, null, null);
+    }
+
+    /**
+     * Gets a car by id.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<Car> getCar()
+    {
+        return carController.getCar(rows / 2, null);
+    }
+
+    /**
+     * Gets cars by colour.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<List<Car>> getCarsByColour()
+    {
+        return carController.getCarsByColour(SyntheticCars.RARE_COLOUR);
+    }
+
+    /**
+     * Gets cars by brand.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<List<Car>> getCarsByBrand()
+    {
+        return carController.getCarsByBrand(SyntheticCars.RARE_BRAND);
+    }
+
+    /**
+     * Gets cars sorted by year, first page.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<List<Car>> getCarsSortedByYear()
+    {
+        return carController.getCarsSortedByYear(LIMIT, null, null);
+    }
+
+    /**
+     * Gets the first created car.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<Car> getFirstCreatedCar()
+    {
+        return carController.getFirstCreatedCar();
+    }
+
+    /**
+     * Gets cars count.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<Long> getCarsCount()
+    {
+        return carController.getCarsCount();
+    }
+
+    /**
+     * Counts cars by facet, bypassing the stats cache.
+     *
+     * @return the stats
+     */
+    @Benchmark
+    public CarStats countFacets()
+    {
+        return carRepository.countFacets(null, null, null, 10);
+    }
+}
@@ -0,0 +1,112 @@
+package main.benchmarks;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import main.model.Car;
+import main.model.CarRepository;
+import main.services.CarRepositoryMetrics;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of {@link CarRepositoryMetrics} on a repository call, measured on a repository
+ * proxy that does no work, with histograms published as configured in {@code application.yml}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CarRepositoryMetricsBenchmark
+{
+    private static final List<Car> CARS = Collections.nCopies(100, new Car());
+
+    private CarRepository plain;
+
+    private CarRepository timed;
+
+    /**
+     * Builds the plain and the timed repositories.
+     */
+    @Setup
+    public void setUp()
+    {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.config().meterFilter(new MeterFilter()
+        {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config)
+            {
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .build()
+                        .merge(config);
+            }
+        });
+        plain = repository();
+        timed = repository();
+        new CarRepositoryMetrics(registry).instrument(timed);
+    }
+
+    private static CarRepository repository()
+    {
+        ProxyFactory factory = new ProxyFactory();
+        factory.addInterface(CarRepository.class);
+        factory.addAdvice((MethodInterceptor) invocation ->
+                invocation.getMethod().getName().equals("count") ? 0L : CARS);
+        return (CarRepository) factory.getProxy();
+    }
+
+    /**
+     * Count without metrics.
+     *
+     * @return the count
+     */
+    @Benchmark
+    public long countPlain()
+    {
+        return plain.count();
+    }
+
+    /**
+     * Count timed.
+     *
+     * @return the count
+     */
+    @Benchmark
+    public long countTimed()
+    {
+        return timed.count();
+    }
+
+    /**
+     * List without metrics.
+     *
+     * @return the cars
+     */
+    @Benchmark
+    public List<Car> findByColourPlain()
+    {
+        return plain.findByColour(SyntheticCars.RARE_COLOUR);
+    }
+
+    /**
+     * List timed, also recording the returned rows.
+     *
+     * @return the cars
+     */
+    @Benchmark
+    public List<Car> findByColourTimed()
+    {
+        return timed.findByColour(SyntheticCars.RARE_COLOUR);
+    }
+}
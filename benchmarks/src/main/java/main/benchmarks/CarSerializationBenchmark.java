@@ -0,0 +1,136 @@
+package main.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import main.model.Car;
+import main.server.WireFormats;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Jackson serialisation of {@code List<Car>} response bodies, with the object mapper
+ * configured like the one Spring Boot builds for the application, in each of the
+ * {@link WireFormats} and JSON. {@link CarPayloadReport} prints the resulting sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CarSerializationBenchmark
+{
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    /**
+     * The encoding: json, smile or cbor.
+     */
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    private List<Car> cars;
+
+    private ObjectWriter writer;
+
+    /**
+     * Builds the list and the writer.
+     */
+    @Setup
+    public void setUp()
+    {
+        cars = cars(size);
+        writer = writer(format);
+    }
+
+    /**
+     * Builds a list of synthetic cars.
+     *
+     * @param size the number of cars
+     * @return the cars
+     */
+    static List<Car> cars(int size)
+    {
+        long now = System.currentTimeMillis();
+        List<Car> cars = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Car car = new Car(SyntheticCars.licenseNumber(i),
+                    SyntheticCars.brand(i, size),
+                    SyntheticCars.model(i),
+                    SyntheticCars.colour(i, size),
+                    SyntheticCars.productionYear(i),
+                    SyntheticCars.bodyType(i));
+            car.setId(i + 1);
+            car.setCreationDate(new Timestamp(now - (size - i) * 1000L));
+            cars.add(car);
+        }
+        return cars;
+    }
+
+    /**
+     * Builds the writer of a list of cars in one encoding, as the application configures it.
+     *
+     * @param format json, smile or cbor
+     * @return the writer
+     */
+    static ObjectWriter writer(String format)
+    {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        switch (format) {
+            case "json":
+                break;
+            case "smile":
+                builder.factory(WireFormats.smileFactory());
+                break;
+            case "cbor":
+                builder.factory(new CBORFactory());
+                break;
+            default:
+                throw new IllegalArgumentException("unknown format: " + format);
+        }
+        return builder.build().writerFor(List.class);
+    }
+
+    /**
+     * Serialises the list to a byte array.
+     *
+     * @return the JSON bytes
+     * @throws IOException if serialisation fails
+     */
+    @Benchmark
+    public byte[] toBytes() throws IOException
+    {
+        return writer.writeValueAsBytes(cars);
+    }
+
+    /**
+     * Serialises the list to a stream discarding the output, as a response stream would.
+     *
+     * @throws IOException if serialisation fails
+     */
+    @Benchmark
+    public void toStream() throws IOException
+    {
+        writer.writeValue(OutputStream.nullOutputStream(), cars);
+    }
+
+    /**
+     * Serialises the list through gzip to a stream discarding the output, as a response
+     * stream compressed by the server would.
+     *
+     * @throws IOException if serialisation fails
+     */
+    @Benchmark
+    public void toGzipStream() throws IOException
+    {
+        writer.writeValue(new GZIPOutputStream(OutputStream.nullOutputStream(), 8192), cars);
+    }
+}
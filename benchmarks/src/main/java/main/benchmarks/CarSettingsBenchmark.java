@@ -0,0 +1,99 @@
+package main.benchmarks;
+
+import main.model.Car;
+import main.model.CarSearch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * {@link main.controllers.CarController#addCar(Car)} and the read endpoints with the default
+ * settings and with those of the production profile: a fixed connection pool, Hibernate
+ * statement ordering, query plan cache and IN clause padding, and a schema migrated by
+ * Flyway. The statement caching settings of the MySQL driver are ignored by H2.
+ */
+public class CarSettingsBenchmark extends SeededCarListBenchmark
+{
+    private static final int LIMIT = 100;
+
+    /**
+     * The settings, default or production.
+     */
+    @Param({"default", "production"})
+    public String settings;
+
+    private CarSearch brandAndColour;
+
+    private int added;
+
+    @Override
+    protected String[] profiles()
+    {
+        return "production".equals(settings) ? new String[]{"production"} : new String[0];
+    }
+
+    /**
+     * Builds the search.
+     */
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        brandAndColour = new CarSearch();
+        brandAndColour.setBrand(SyntheticCars.RARE_BRAND);
+        brandAndColour.setColour(SyntheticCars.RARE_COLOUR);
+    }
+
+    /**
+     * Adds a car with a new license number.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<Integer> addCar()
+    {
+        int index = rows + added++;
+        return carController.addCar(new Car(SyntheticCars.licenseNumber(index),
+                SyntheticCars.brand(index, rows),
+                SyntheticCars.model(index),
+                SyntheticCars.colour(index, rows),
+                SyntheticCars.productionYear(index),
+                SyntheticCars.bodyType(index)));
+    }
+
+    /**
+     * Car list, first page.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<List<Car>> carList()
+    {
+        return carController.carList(LIMIT, null, null);
+    }
+
+    /**
+     * Gets cars by colour.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<List<Car>> getCarsByColour()
+    {
+        return carController.getCarsByColour(SyntheticCars.RARE_COLOUR);
+    }
+
+    /**
+     * Searches by brand and colour.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<List<Car>> searchByBrandAndColour()
+    {
+        return carController.searchCars(brandAndColour, LIMIT, null, null);
+    }
+}
@@ -0,0 +1,90 @@
+package main.benchmarks;
+
+import main.model.Car;
+import main.services.CarSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * The read paths of {@link main.controllers.CarController} answered by the database or by
+ * the {@link CarSnapshot}, loaded once the table is seeded.
+ */
+public class CarSnapshotBenchmark extends SeededCarListBenchmark
+{
+    private static final int LIMIT = 100;
+
+    /**
+     * Whether the snapshot answers the reads.
+     */
+    @Param({"false", "true"})
+    public boolean snapshot;
+
+    /**
+     * Loads the snapshot, if used.
+     */
+    @Override
+    protected void seeded()
+    {
+        if (snapshot) {
+            context.getBean(CarSnapshot.class).load();
+        }
+    }
+
+    /**
+     * Gets cars by colour.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<List<Car>> getCarsByColour()
+    {
+        return carController.getCarsByColour(SyntheticCars.RARE_COLOUR);
+    }
+
+    /**
+     * Gets cars by brand.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<List<Car>> getCarsByBrand()
+    {
+        return carController.getCarsByBrand(SyntheticCars.RARE_BRAND);
+    }
+
+    /**
+     * Gets cars sorted by year, first page.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<List<Car>> getCarsSortedByYear()
+    {
+        return carController.getCarsSortedByYear(LIMIT, null, null);
+    }
+
+    /**
+     * Gets the last created car.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<Car> getLastCreatedCar()
+    {
+        return carController.getLastCreatedCar();
+    }
+
+    /**
+     * Gets cars count.
+     *
+     * @return the response entity
+     */
+    @Benchmark
+    public ResponseEntity<Long> getCarsCount()
+    {
+        return carController.getCarsCount();
+    }
+}
@@ -0,0 +1,42 @@
+package main.benchmarks;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Prints the space used by each table, indexes included, once seeded with the given
+ * number of {@link SyntheticCars}, so storage changes of the schema can be compared.
+ * <p>
+ * Runs on an H2 database in MySQL mode stored in a temporary directory, as an in-memory
+ * database does not report its size.
+ */
+public final class CarStorageReport
+{
+    private CarStorageReport() {}
+
+    /**
+     * Seeds the database and prints the size of its tables in bytes.
+     *
+     * @param args the number of rows, 1M by default
+     * @throws IOException if the temporary directory cannot be created
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path directory = Files.createTempDirectory("cars");
+        System.setProperty("spring.datasource.url", "jdbc:h2:file:" + directory.resolve("cars") + ";MODE=MySQL");
+        try (ConfigurableApplicationContext context = CarListContext.start()) {
+            CarListContext.seed(context, rows);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            for (String table : jdbcTemplate.queryForList("select table_name from information_schema.tables"
+                    + " where table_schema = 'PUBLIC' order by table_name", String.class)) {
+                long bytes = jdbcTemplate.queryForObject("call disk_space_used(?)", Long.class, table);
+                System.out.printf("%-16s %,14d bytes %,8.1f bytes/row%n", table, bytes, (double) bytes / rows);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package main.benchmarks;
+
+import main.model.BodyType;
+import main.model.Car;
+import main.model.CarValidationCode;
+import main.model.CarValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CarValidator} against the former {@code Car.isCorrect} implementation,
+ * which recompiled its regex and created a {@link Calendar} on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CarValidationBenchmark
+{
+    @Param({"м626рт96", "v626рт96", "м000рт96"})
+    private String licenseNumber;
+
+    private Car car;
+
+    /**
+     * Builds the validated car.
+     */
+    @Setup
+    public void setUp()
+    {
+        car = new Car(licenseNumber, "Subaru", "Legacy", "gray", 1994, BodyType.WAGON);
+    }
+
+    /**
+     * The former regex and calendar based validation.
+     *
+     * @return whether the car is correct
+     */
+    @Benchmark
+    public boolean regexIsCorrect()
+    {
+        return car.getLicenseNumber().matches("^[АВЕКМНОРСТУХавекмнорстух]\\d{3}(?<!000)[АВЕКМНОРСТУХавекмнорстух]{2}\\d{2,3}$")
+                && !car.getBrand().isEmpty()
+                && !car.getModel().isEmpty()
+                && !car.getColour().isEmpty()
+                && !(car.getProductionYear() < 1885)
+                && !(car.getProductionYear() > Calendar.getInstance().get(Calendar.YEAR));
+    }
+
+    /**
+     * The current {@link Car#isCorrect()}.
+     *
+     * @return whether the car is correct
+     */
+    @Benchmark
+    public boolean isCorrect()
+    {
+        return car.isCorrect();
+    }
+
+    /**
+     * The state machine validation.
+     *
+     * @return the validation code
+     */
+    @Benchmark
+    public CarValidationCode validate()
+    {
+        return CarValidator.validate(car);
+    }
+}
@@ -0,0 +1,534 @@
+package main.benchmarks;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop HTTP load test of a running CarList server with a mix of reads and writes,
+ * see {@link CarLoadServer}.
+ * <p>
+ * For each arrival rate, sends requests at that fixed rate whatever the response times:
+ * first for a warm-up, then for the measured period. The latency of a request is counted
+ * from the time it was due, so a server falling behind shows in the percentiles instead of
+ * slowing the client down. The {@link Operation operations} and the cars they read or write
+ * are drawn from a seeded random generator, the same for every run, with ids and plates
+ * skewed towards a few hot cars. The cars added by a run are deleted by the run, so runs
+ * against the same server are comparable.
+ * <p>
+ * Prints and writes to a CSV report, per rate and per operation, the throughput, the
+ * 50th, 99th and 99.9th percentile latencies and the error rate; given the report of a
+ * previous run, prints the differences with it. Exits with status 1 if a rate misses the
+ * objectives, a 99th percentile of {@code -Dslo.p99Millis} (200 by default) and an error
+ * rate of {@code -Dslo.errorRate} (0.001 by default).
+ */
+public final class CarWorkload
+{
+    private static final Duration WARMUP = Duration.ofSeconds(10);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final long SEED = 42;
+
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * Number of plates each run may take for the cars it adds.
+     */
+    private static final int ADDED_PLATES = 1_000_000;
+
+    private static final String[] COLOURS = {"red", "blue", "white", "black"};
+
+    private static final String ALL = "all";
+
+    private static final String HEADER = "rate,operation,requests,errors,error_rate,throughput,p50_ms,p99_ms,p999_ms,max_ms";
+
+    /**
+     * The requests of the workload, with their share of the requests sent.
+     */
+    enum Operation
+    {
+        GET_CAR("get-car", 35),
+        LIST("list", 10),
+        BY_COLOUR("by-colour", 5),
+        BY_BRAND("by-brand", 5),
+        SORTED_BY_YEAR("sorted-by-year", 10),
+        SEARCH("search", 10),
+        COUNT("count", 5),
+        PLATES("plates", 5),
+        SET_COLOUR("set-colour", 5),
+        ADD("add", 5),
+        DELETE("delete", 5);
+
+        private final String label;
+
+        private final int weight;
+
+        Operation(String label, int weight)
+        {
+            this.label = label;
+            this.weight = weight;
+        }
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private static final int TOTAL_WEIGHT = Arrays.stream(OPERATIONS).mapToInt(operation -> operation.weight).sum();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final String baseUrl;
+
+    private final int rows;
+
+    private final SplittableRandom random = new SplittableRandom(SEED);
+
+    /**
+     * The index of the plate of the next added car, in a block past the seeded plates drawn
+     * for each run, so that cars a previous run added but did not see created do not collide.
+     */
+    private final AtomicInteger added;
+
+    private final Queue<Integer> addedIds = new ConcurrentLinkedQueue<>();
+
+    private CarWorkload(String baseUrl, int rows)
+    {
+        this.baseUrl = baseUrl;
+        this.rows = rows;
+        this.added = new AtomicInteger(rows + ADDED_PLATES * (1 + new SplittableRandom().nextInt(100)));
+    }
+
+    /**
+     * Runs the workload.
+     *
+     * @param args the base URL of the server, http://localhost:8080 by default, the
+     *             comma-separated arrival rates in requests per second, 500,1000,2000 by
+     *             default, the measured seconds per rate, 30 by default, the number of rows
+     *             the server was seeded with, 100k by default, the report to write,
+     *             workload.csv by default, and the report of a previous run to compare with
+     * @throws IOException          if a report cannot be read or written
+     * @throws InterruptedException if interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        String rates = args.length > 1 ? args[1] : "500,1000,2000";
+        Duration period = Duration.ofSeconds(args.length > 2 ? Integer.parseInt(args[2]) : 30);
+        int rows = args.length > 3 ? Integer.parseInt(args[3]) : 100_000;
+        Path report = Paths.get(args.length > 4 ? args[4] : "workload.csv");
+        Path baseline = args.length > 5 ? Paths.get(args[5]) : null;
+        long sloP99Millis = Long.getLong("slo.p99Millis", 200);
+        double sloErrorRate = Double.parseDouble(System.getProperty("slo.errorRate", "0.001"));
+
+        CarWorkload workload = new CarWorkload(baseUrl, rows);
+        System.out.printf("%s, %d rows, %ds per rate after %ds of warm-up, seed %d%n",
+                baseUrl, rows, period.getSeconds(), WARMUP.getSeconds(), SEED);
+        System.out.printf("%6s %-15s %9s %7s %10s %8s %8s %8s %8s%n",
+                "rate", "operation", "requests", "errors", "requests/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        boolean met = true;
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(report, StandardCharsets.UTF_8))) {
+            writer.printf("# %s, %s, %d rows, %ds per rate, seed %d, java %s%n", Instant.now(), baseUrl, rows,
+                    period.getSeconds(), SEED, System.getProperty("java.version"));
+            writer.println(HEADER);
+            for (String level : rates.split(",")) {
+                int rate = Integer.parseInt(level.trim());
+                Result result = workload.run(rate, period);
+                for (Row row : result.rows()) {
+                    System.out.printf("%6d %-15s %9d %7d %10.1f %8.2f %8.2f %8.2f %8.2f%n", rate, row.operation,
+                            row.requests, row.errors, row.throughput, row.p50, row.p99, row.p999, row.max);
+                    writer.println(row.csv(rate));
+                }
+                Row all = result.rows().get(0);
+                boolean rateMet = all.p99 <= sloP99Millis && all.errorRate() <= sloErrorRate;
+                System.out.printf("%6d SLO p99 <= %d ms, error rate <= %.2f%%: %s%n",
+                        rate, sloP99Millis, sloErrorRate * 100, rateMet ? "met" : "MISSED");
+                met &= rateMet;
+            }
+        }
+        finally {
+            workload.deleteAdded();
+        }
+        System.out.printf("report written to %s%n", report);
+        if (baseline != null) {
+            compare(baseline, report);
+        }
+        if (!met) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Sends the requests of one rate, then waits for their responses.
+     */
+    private Result run(int rate, Duration period) throws InterruptedException
+    {
+        int warmup = (int) (rate * WARMUP.getSeconds());
+        int measured = (int) (rate * period.getSeconds());
+        Result result = new Result(measured);
+        CountDownLatch completed = new CountDownLatch(warmup + measured);
+        double interval = TimeUnit.SECONDS.toNanos(1) / (double) rate;
+        long start = System.nanoTime();
+        for (int i = 0; i < warmup + measured; i++) {
+            long due = start + (long) (i * interval);
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = next();
+            int slot = i - warmup;
+            if (slot == 0) {
+                result.startedAt = due;
+            }
+            send(operation, due, (status, end) -> {
+                if (slot >= 0) {
+                    result.record(slot, operation, due, end, status);
+                }
+                completed.countDown();
+            });
+        }
+        if (!completed.await(REQUEST_TIMEOUT.getSeconds() * 2, TimeUnit.SECONDS)) {
+            System.out.printf("%6d %d requests still pending, counted as errors%n", rate, completed.getCount());
+        }
+        return result;
+    }
+
+    /**
+     * Draws the next operation; a delete with no added car left becomes an add.
+     */
+    private Operation next()
+    {
+        int pick = random.nextInt(TOTAL_WEIGHT);
+        for (Operation operation : OPERATIONS) {
+            pick -= operation.weight;
+            if (pick < 0) {
+                return operation == Operation.DELETE && addedIds.isEmpty() ? Operation.ADD : operation;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    /**
+     * Draws the index of a seeded car, the car at index k being drawn in proportion to 1/(k+1).
+     */
+    private int hotIndex()
+    {
+        return (int) Math.pow(rows, random.nextDouble()) - 1;
+    }
+
+    private void send(Operation operation, long due, Completion completion)
+    {
+        HttpRequest request;
+        switch (operation) {
+            case GET_CAR:
+                request = get("/cars/id=" + (hotIndex() + 1));
+                break;
+            case LIST:
+                request = get("/cars/?limit=" + PAGE_SIZE);
+                break;
+            case BY_COLOUR:
+                request = get("/cars/colour=" + SyntheticCars.RARE_COLOUR);
+                break;
+            case BY_BRAND:
+                request = get("/cars/brand=" + SyntheticCars.RARE_BRAND);
+                break;
+            case SORTED_BY_YEAR:
+                request = get("/cars/sorted-by-year?limit=" + PAGE_SIZE);
+                break;
+            case SEARCH:
+                request = get("/cars/search?colour=" + COLOURS[random.nextInt(COLOURS.length)]
+                        + "&sort=productionYear&order=desc&limit=" + PAGE_SIZE);
+                break;
+            case COUNT:
+                request = get("/cars/count");
+                break;
+            case PLATES:
+                request = get("/cars/plates?limit=" + PAGE_SIZE + "&licenseNumber="
+                        + encode(SyntheticCars.licenseNumber(hotIndex()).substring(0, 4)));
+                break;
+            case SET_COLOUR:
+                request = HttpRequest.newBuilder(uri("/cars/id=" + (hotIndex() + 1) + "-set-colour="
+                        + COLOURS[random.nextInt(COLOURS.length)]))
+                        .timeout(REQUEST_TIMEOUT)
+                        .PUT(HttpRequest.BodyPublishers.noBody())
+                        .build();
+                break;
+            case ADD:
+                request = add(added.getAndIncrement());
+                client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+                    if (error == null && response.statusCode() == 201) {
+                        addedIds.add(Integer.valueOf(response.body().trim()));
+                    }
+                    completion.completed(error != null ? -1 : response.statusCode(), System.nanoTime());
+                });
+                return;
+            case DELETE:
+                request = delete(addedIds.poll());
+                break;
+            default:
+                throw new IllegalArgumentException(operation.name());
+        }
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) ->
+                completion.completed(error != null ? -1 : response.statusCode(), System.nanoTime()));
+    }
+
+    private HttpRequest get(String path)
+    {
+        return HttpRequest.newBuilder(uri(path)).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+
+    private HttpRequest delete(int id)
+    {
+        return HttpRequest.newBuilder(uri("/cars/id=" + id)).timeout(REQUEST_TIMEOUT).DELETE().build();
+    }
+
+    /**
+     * Builds the request adding a synthetic car, with a plate past the seeded ones.
+     */
+    private HttpRequest add(int index)
+    {
+        String form = "licenseNumber=" + encode(SyntheticCars.licenseNumber(index))
+                + "&brand=" + encode(SyntheticCars.brand(index, Integer.MAX_VALUE))
+                + "&model=" + encode(SyntheticCars.model(index))
+                + "&colour=" + encode(COLOURS[index % COLOURS.length])
+                + "&productionYear=" + SyntheticCars.productionYear(index)
+                + "&bodyType=" + SyntheticCars.bodyType(index).name();
+        return HttpRequest.newBuilder(uri("/cars/"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    /**
+     * Deletes the cars added by the run and not deleted yet.
+     */
+    private void deleteAdded()
+    {
+        for (Integer id = addedIds.poll(); id != null; id = addedIds.poll()) {
+            try {
+                client.send(delete(id), HttpResponse.BodyHandlers.discarding());
+            }
+            catch (IOException e) {
+                System.out.printf("could not delete car %d: %s%n", id, e);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private URI uri(String path)
+    {
+        return URI.create(baseUrl + path);
+    }
+
+    private static String encode(String value)
+    {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Prints the throughput and 99th percentile of each row of a report next to the same row of a baseline.
+     */
+    private static void compare(Path baseline, Path report) throws IOException
+    {
+        Map<String, String[]> before = read(baseline);
+        System.out.printf("compared with %s%n", baseline);
+        System.out.printf("%6s %-15s %21s %21s %15s%n", "rate", "operation", "requests/s", "p99 ms", "error rate");
+        for (Map.Entry<String, String[]> entry : read(report).entrySet()) {
+            String[] now = entry.getValue();
+            String[] then = before.get(entry.getKey());
+            if (then == null) {
+                continue;
+            }
+            System.out.printf("%6s %-15s %9s %11s %9s %11s %7s %7s%n", now[0], now[1],
+                    now[5], change(then[5], now[5]), now[7], change(then[7], now[7]), then[4], now[4]);
+        }
+    }
+
+    private static String change(String then, String now)
+    {
+        double before = Double.parseDouble(then);
+        return before == 0 ? "" : String.format("(%+.1f%%)", (Double.parseDouble(now) / before - 1) * 100);
+    }
+
+    /**
+     * Reads the rows of a report by rate and operation, in order.
+     */
+    private static Map<String, String[]> read(Path report) throws IOException
+    {
+        Map<String, String[]> rows = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(report, StandardCharsets.UTF_8)) {
+            if (line.startsWith("#") || line.equals(HEADER) || line.isEmpty()) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            rows.put(fields[0] + "," + fields[1], fields);
+        }
+        return rows;
+    }
+
+    /**
+     * Receives the status of a response, -1 if none came, and the time it came.
+     */
+    @FunctionalInterface
+    private interface Completion
+    {
+        void completed(int status, long end);
+    }
+
+    /**
+     * The measured requests of one rate: operation, latency in nanoseconds and status of each.
+     */
+    private static final class Result
+    {
+        private final Operation[] operations;
+
+        private final long[] latencies;
+
+        private final int[] statuses;
+
+        private final long[] ends;
+
+        private long startedAt;
+
+        private Result(int measured)
+        {
+            operations = new Operation[measured];
+            latencies = new long[measured];
+            statuses = new int[measured];
+            ends = new long[measured];
+        }
+
+        private synchronized void record(int slot, Operation operation, long due, long end, int status)
+        {
+            operations[slot] = operation;
+            latencies[slot] = end - due;
+            statuses[slot] = status;
+            ends[slot] = end;
+        }
+
+        /**
+         * Gets the row of all requests followed by the row of each operation.
+         */
+        private synchronized List<Row> rows()
+        {
+            Map<String, Row> rows = new LinkedHashMap<>();
+            rows.put(ALL, row(ALL, null));
+            for (Operation operation : OPERATIONS) {
+                Row row = row(operation.label, operation);
+                if (row.requests > 0) {
+                    rows.put(operation.label, row);
+                }
+            }
+            return List.copyOf(rows.values());
+        }
+
+        private Row row(String label, Operation operation)
+        {
+            long[] succeeded = new long[latencies.length];
+            int requests = 0;
+            int errors = 0;
+            long lastEnd = startedAt;
+            for (int i = 0; i < latencies.length; i++) {
+                if (operation != null && operations[i] != operation) {
+                    continue;
+                }
+                requests++;
+                if (operations[i] == null || statuses[i] < 0 || statuses[i] >= 400) {
+                    errors++;
+                    continue;
+                }
+                succeeded[requests - errors - 1] = latencies[i];
+                lastEnd = Math.max(lastEnd, ends[i]);
+            }
+            long[] sorted = Arrays.copyOf(succeeded, requests - errors);
+            Arrays.sort(sorted);
+            double seconds = Math.max(1, lastEnd - startedAt) / 1e9;
+            return new Row(label, requests, errors, sorted.length / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double fraction)
+        {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(sorted.length * fraction);
+            return sorted[Math.max(0, rank - 1)] / 1e6;
+        }
+    }
+
+    /**
+     * A line of the report.
+     */
+    private static final class Row
+    {
+        private final String operation;
+
+        private final int requests;
+
+        private final int errors;
+
+        private final double throughput;
+
+        private final double p50;
+
+        private final double p99;
+
+        private final double p999;
+
+        private final double max;
+
+        private Row(String operation, int requests, int errors, double throughput,
+                    double p50, double p99, double p999, double max)
+        {
+            this.operation = operation;
+            this.requests = requests;
+            this.errors = errors;
+            this.throughput = throughput;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+
+        private double errorRate()
+        {
+            return requests == 0 ? 0 : errors / (double) requests;
+        }
+
+        private String csv(int rate)
+        {
+            return String.format(Locale.ROOT, "%d,%s,%d,%d,%.5f,%.1f,%.3f,%.3f,%.3f,%.3f",
+                    rate, operation, requests, errors, errorRate(), throughput, p50, p99, p999, max);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package main.benchmarks;
+
+import main.controllers.CarController;
+import main.model.CarRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base of the benchmarks running against the whole application on an H2 database
+ * in MySQL mode, seeded with 10k, 100k or 1M {@link SyntheticCars}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public abstract class SeededCarListBenchmark
+{
+    /**
+     * The number of seeded rows.
+     */
+    @Param({"10000", "100000", "1000000"})
+    protected int rows;
+
+    /**
+     * The application context.
+     */
+    protected ConfigurableApplicationContext context;
+
+    /**
+     * The car controller.
+     */
+    protected CarController carController;
+
+    /**
+     * The car repository.
+     */
+    protected CarRepository carRepository;
+
+    /**
+     * Boots and seeds the application.
+     */
+    @Setup(Level.Trial)
+    public void startApplication()
+    {
+        context = CarListContext.start(profiles());
+        CarListContext.seed(context, rows);
+        carController = context.getBean(CarController.class);
+        carRepository = context.getBean(CarRepository.class);
+        seeded();
+    }
+
+    /**
+     * Prepares the benchmark once the application is seeded.
+     */
+    protected void seeded()
+    {
+    }
+
+    /**
+     * Gets the profiles activated in addition to the benchmark profile.
+     *
+     * @return the profiles, none by default
+     */
+    protected String[] profiles()
+    {
+        return new String[0];
+    }
+
+    /**
+     * Closes the application.
+     */
+    @TearDown(Level.Trial)
+    public void closeApplication()
+    {
+        context.close();
+    }
+}
@@ -0,0 +1,132 @@
+package main.benchmarks;
+
+import main.model.BodyType;
+
+/**
+ * Deterministic generator of valid synthetic cars for benchmarks.
+ * <p>
+ * Every generated row passes {@link main.model.Car#isCorrect()}, license numbers are unique
+ * for the first 155 million indexes, and exactly {@link #RARE_ROWS} rows carry the rare
+ * brand and colour, whatever the table size.
+ */
+public final class SyntheticCars
+{
+    /**
+     * Number of rows having {@link #RARE_BRAND} and {@link #RARE_COLOUR}.
+     */
+    public static final int RARE_ROWS = 100;
+
+    /**
+     * Brand matched by exactly {@link #RARE_ROWS} rows.
+     */
+    public static final String RARE_BRAND = "Lada";
+
+    /**
+     * Colour matched by exactly {@link #RARE_ROWS} rows.
+     */
+    public static final String RARE_COLOUR = "purple";
+
+    private static final String LETTERS = "авекмнорстух";
+
+    private static final String[] BRANDS = {"Subaru", "Nissan", "Toyota", "Honda", "Mazda", "Volvo", "Skoda", "Kia"};
+
+    private static final String[] MODELS = {"Legacy", "Wingroad", "Corolla", "Civic", "Demio", "V70", "Octavia", "Rio"};
+
+    private static final String[] COLOURS = {"gray", "white", "black", "red", "blue", "green", "silver", "yellow"};
+
+    private static final BodyType[] BODY_TYPES = BodyType.values();
+
+    private SyntheticCars() {}
+
+    /**
+     * Gets the license number of the row with the given index.
+     *
+     * @param index the row index
+     * @return the license number
+     */
+    public static String licenseNumber(int index)
+    {
+        int letters = LETTERS.length();
+        int number = 1 + index % 999;
+        int rest = index / 999;
+        char first = LETTERS.charAt(rest % letters);
+        rest /= letters;
+        char second = LETTERS.charAt(rest % letters);
+        rest /= letters;
+        char third = LETTERS.charAt(rest % letters);
+        rest /= letters;
+        int region = 10 + rest % 90;
+        return new StringBuilder(9)
+                .append(first)
+                .append((char) ('0' + number / 100))
+                .append((char) ('0' + number / 10 % 10))
+                .append((char) ('0' + number % 10))
+                .append(second)
+                .append(third)
+                .append(region)
+                .toString();
+    }
+
+    /**
+     * Gets the brand of the row with the given index.
+     *
+     * @param index the row index
+     * @param rows  the table size
+     * @return the brand
+     */
+    public static String brand(int index, int rows)
+    {
+        return isRare(index, rows) ? RARE_BRAND : BRANDS[index % BRANDS.length];
+    }
+
+    /**
+     * Gets the model of the row with the given index.
+     *
+     * @param index the row index
+     * @return the model
+     */
+    public static String model(int index)
+    {
+        return MODELS[index % MODELS.length];
+    }
+
+    /**
+     * Gets the colour of the row with the given index.
+     *
+     * @param index the row index
+     * @param rows  the table size
+     * @return the colour
+     */
+    public static String colour(int index, int rows)
+    {
+        return isRare(index, rows) ? RARE_COLOUR : COLOURS[index / 3 % COLOURS.length];
+    }
+
+    /**
+     * Gets the production year of the row with the given index.
+     *
+     * @param index the row index
+     * @return the production year
+     */
+    public static int productionYear(int index)
+    {
+        return 1950 + index % 70;
+    }
+
+    /**
+     * Gets the body type of the row with the given index.
+     *
+     * @param index the row index
+     * @return the body type
+     */
+    public static BodyType bodyType(int index)
+    {
+        return BODY_TYPES[index % BODY_TYPES.length];
+    }
+
+    private static boolean isRare(int index, int rows)
+    {
+        int stride = Math.max(1, rows / RARE_ROWS);
+        return index % stride == 0 && index / stride < RARE_ROWS;
+    }
+}